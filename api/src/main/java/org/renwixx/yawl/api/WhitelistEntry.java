@@ -0,0 +1,36 @@
+package org.renwixx.yawl.api;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of a whitelist entry. Later changes to the whitelist are not reflected in it.
+ *
+ * @param name         the name or wildcard pattern as it was added
+ * @param expiresAt    when access ends, or {@code null} for permanent entries
+ * @param serverGroups the server groups the entry is limited to; empty means every server
+ */
+public record WhitelistEntry(String name, Instant expiresAt, Set<String> serverGroups) {
+
+    public WhitelistEntry {
+        serverGroups = Set.copyOf(serverGroups);
+    }
+
+    public Optional<Instant> getExpiresAt() {
+        return Optional.ofNullable(expiresAt);
+    }
+
+    public boolean isPermanent() {
+        return expiresAt == null;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+
+    /** True for entries containing the wildcards {@code *} or {@code ?}. */
+    public boolean isPattern() {
+        return name.indexOf('*') >= 0 || name.indexOf('?') >= 0;
+    }
+}
@@ -0,0 +1,59 @@
+package org.renwixx.yawl.api;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Entry point for other plugins. Obtain it with {@link YawlProvider#get()} once YAWL has been initialised
+ * (declare a dependency on the plugin id {@code yetanotherwhitelistplugin}).
+ *
+ * <p>Queries read the same in-memory index as the login check: they never block and never touch the disk.
+ * Mutations are persisted in the background and complete their future when the change is visible.
+ */
+public interface YawlApi {
+
+    /** False until YAWL has finished loading its files after a proxy start; queries see an empty whitelist until then. */
+    boolean isReady();
+
+    /** Whether the name has an active entry, exact or through a wildcard pattern. Network ranges are not considered. */
+    boolean isWhitelisted(String name);
+
+    /** Checks an online player by name, anyone else by the UUID resolved for their entry. Unknown UUIDs complete with {@code false}. */
+    CompletableFuture<Boolean> isWhitelisted(UUID uniqueId);
+
+    /** Checks every name against one consistent snapshot of the whitelist. The map keeps the iteration order of the input. */
+    Map<String, Boolean> checkAll(Collection<String> names);
+
+    /** Bulk variant of {@link #isWhitelisted(UUID)}. */
+    CompletableFuture<Map<UUID, Boolean>> checkAllById(Collection<UUID> uniqueIds);
+
+    /** The exact entry stored for this name or pattern, including expired ones that have not been removed yet. */
+    Optional<WhitelistEntry> getEntry(String name);
+
+    /** The entry that currently admits this name, which may be a wildcard pattern. */
+    Optional<WhitelistEntry> findMatchingEntry(String name);
+
+    /**
+     * Entries whose access ends within {@code within} from now, soonest first. Permanent entries never appear.
+     * Pages through the result with {@code offset} and {@code limit}; each call is a range scan of the expiry index.
+     */
+    List<WhitelistEntry> getExpiring(Duration within, int offset, int limit);
+
+    /**
+     * Adds a permanent entry, or a timed one when {@code duration} is not null. Completes with {@code false}
+     * if the name was already whitelisted. {@code actor} is recorded in the audit log, e.g. your plugin id.
+     */
+    CompletableFuture<Boolean> add(String name, Duration duration, String actor);
+
+    /** Sets the expiry of an existing entry; {@code null} makes it permanent. Completes with {@code false} if there is no entry. */
+    CompletableFuture<Boolean> setExpiry(String name, Instant expiresAt, String actor);
+
+    /** Removes an entry and, depending on the config, kicks the player. Completes with {@code false} if there was no entry. */
+    CompletableFuture<Boolean> remove(String name, String actor);
+}
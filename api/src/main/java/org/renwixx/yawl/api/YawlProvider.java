@@ -0,0 +1,28 @@
+package org.renwixx.yawl.api;
+
+/**
+ * Static access to the running {@link YawlApi}. Velocity has no service registry, so YAWL registers its
+ * implementation here during proxy initialisation and clears it on shutdown.
+ */
+public final class YawlProvider {
+    private static volatile YawlApi instance;
+
+    private YawlProvider() { }
+
+    /** @throws IllegalStateException if YAWL is not installed or has not been initialised yet */
+    public static YawlApi get() {
+        YawlApi api = instance;
+        if (api == null) {
+            throw new IllegalStateException("YAWL is not loaded yet. Depend on 'yetanotherwhitelistplugin' and call this after proxy initialisation.");
+        }
+        return api;
+    }
+
+    public static void register(YawlApi api) {
+        instance = api;
+    }
+
+    public static void unregister() {
+        instance = null;
+    }
+}
@@ -0,0 +1,27 @@
+package org.renwixx.yawl.api.event;
+
+import org.renwixx.yawl.api.WhitelistEntry;
+
+/**
+ * One change to a single whitelist entry.
+ *
+ * @param type   what happened to the entry
+ * @param name   the name or wildcard pattern of the entry
+ * @param before the entry before the change, or {@code null} if it was added
+ * @param after  the entry after the change, or {@code null} if it was removed
+ */
+public record WhitelistChange(Type type, String name, WhitelistEntry before, WhitelistEntry after) {
+
+    public enum Type {
+        /** A new entry; {@code before} is {@code null}. */
+        ADDED,
+        /** Expiry, server groups or schedule of an existing entry changed. */
+        UPDATED,
+        /** The expiry was extended with {@code /yawl extend}, {@code /yawl expiring ... extend} or {@link org.renwixx.yawl.api.YawlApi#setExpiry}. */
+        EXTENDED,
+        /** The entry is gone; {@code after} is {@code null}. */
+        REMOVED,
+        /** The expiry has passed. The entry stays in the whitelist, so {@code before} and {@code after} are the same, until retention removes it. */
+        EXPIRED
+    }
+}
@@ -0,0 +1,38 @@
+package org.renwixx.yawl.api.event;
+
+import java.util.List;
+
+/**
+ * Fired on the Velocity event bus after the whitelist has changed; listen for it with {@code @Subscribe}
+ * like any other event. It is fired asynchronously once the change is visible, so a slow listener never
+ * delays the change itself.
+ *
+ * <p>A single command or API call produces an event with one change. Bulk operations, such as an edit of
+ * {@code whitelist.txt}, a reload, retention or entries expiring, produce one event carrying all of their changes.
+ *
+ * @param cause   what triggered the changes
+ * @param actor   who made them, as recorded in the audit log: a player name, {@code console}, the plugin id
+ *                passed to the API, {@code file} or {@code system}
+ * @param changes the changes, never empty
+ */
+public record WhitelistChangeEvent(Cause cause, String actor, List<WhitelistChange> changes) {
+
+    public enum Cause {
+        /** A {@code /yawl} command or a {@link org.renwixx.yawl.api.YawlApi} call. */
+        COMMAND,
+        /** {@code whitelist.txt} was edited while the proxy was running. */
+        FILE,
+        /** {@code /yawl reload} or a change of {@code config.toml} loaded a different whitelist. */
+        RELOAD,
+        /** Entries reached their expiry. */
+        EXPIRY,
+        /** Expired entries were removed after their retention period. */
+        RETENTION,
+        /** {@code /yawl profile switch} activated a different whitelist profile. */
+        PROFILE
+    }
+
+    public WhitelistChangeEvent {
+        changes = List.copyOf(changes);
+    }
+}
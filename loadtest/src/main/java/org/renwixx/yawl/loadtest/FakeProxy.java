@@ -0,0 +1,285 @@
+package org.renwixx.yawl.loadtest;
+
+import com.velocitypowered.api.command.BrigadierCommand;
+import com.velocitypowered.api.command.CommandManager;
+import com.velocitypowered.api.event.EventManager;
+import com.velocitypowered.api.proxy.ConsoleCommandSource;
+import com.velocitypowered.api.proxy.InboundConnection;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.proxy.ServerConnection;
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import com.velocitypowered.api.proxy.server.ServerInfo;
+import com.velocitypowered.api.scheduler.ScheduledTask;
+import com.velocitypowered.api.scheduler.Scheduler;
+import com.velocitypowered.api.scheduler.TaskStatus;
+import org.slf4j.Logger;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// An in-memory proxy: online players, one backend server, a thread-pool scheduler, an event manager
+// that completes every fire() immediately and a command manager that keeps the registered command.
+final class FakeProxy {
+    private final Map<String, Player> online = new ConcurrentHashMap<>();
+    private final Set<String> stableNames;
+    private final ScheduledThreadPoolExecutor executor;
+    private final RegisteredServer lobby;
+    private final AtomicLong kicks = new AtomicLong();
+    private final AtomicLong wrongKicks = new AtomicLong();
+    private final AtomicLong pluginMessages = new AtomicLong();
+    private final AtomicLong loggedErrors = new AtomicLong();
+    private final AtomicLong loggedWarnings = new AtomicLong();
+    private final boolean verbose;
+    private volatile BrigadierCommand command;
+
+    final ProxyServer server;
+    final Logger logger;
+    final ConsoleCommandSource console = Fakes.of(ConsoleCommandSource.class, (method, args) ->
+            method.equals("hasPermission") ? true : Fakes.UNHANDLED);
+
+    // Kicking a player named in stableNames is always a wrong decision.
+    FakeProxy(Set<String> stableNames, int schedulerThreads, boolean verbose) {
+        this.stableNames = stableNames;
+        this.verbose = verbose;
+        this.executor = new ScheduledThreadPoolExecutor(schedulerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "fake-velocity-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+        ServerInfo lobbyInfo = new ServerInfo("lobby", InetSocketAddress.createUnresolved("127.0.0.1", 25566));
+        this.lobby = Fakes.of(RegisteredServer.class, (method, args) -> switch (method) {
+            case "getServerInfo" -> lobbyInfo;
+            case "getPlayersConnected" -> List.copyOf(online.values());
+            case "sendPluginMessage" -> {
+                pluginMessages.incrementAndGet();
+                yield true;
+            }
+            default -> Fakes.UNHANDLED;
+        });
+        this.logger = createLogger();
+        this.server = createServer();
+    }
+
+    InboundConnection connection(InetSocketAddress address) {
+        return Fakes.of(InboundConnection.class, (method, args) -> switch (method) {
+            case "getRemoteAddress" -> address;
+            case "isActive" -> true;
+            default -> Fakes.UNHANDLED;
+        });
+    }
+
+    Player player(String name, InetSocketAddress address) {
+        UUID uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+        AtomicReference<Player> self = new AtomicReference<>();
+        AtomicReference<ServerConnection> current = new AtomicReference<>();
+        Player player = Fakes.of(Player.class, (method, args) -> switch (method) {
+            case "getUsername" -> name;
+            case "getUniqueId" -> uuid;
+            case "getRemoteAddress" -> address;
+            case "isActive" -> online.get(key(name)) == self.get();
+            case "hasPermission" -> false;
+            case "getEffectiveLocale" -> Locale.ENGLISH;
+            case "getCurrentServer" -> Optional.ofNullable(current.get());
+            case "disconnect" -> {
+                if (online.remove(key(name), self.get())) {
+                    kicks.incrementAndGet();
+                    if (stableNames.contains(name)) {
+                        wrongKicks.incrementAndGet();
+                    }
+                }
+                yield null;
+            }
+            default -> Fakes.UNHANDLED;
+        });
+        self.set(player);
+        current.set(Fakes.of(ServerConnection.class, (method, args) -> switch (method) {
+            case "getServer" -> lobby;
+            case "getServerInfo" -> lobby.getServerInfo();
+            case "getPlayer" -> player;
+            default -> Fakes.UNHANDLED;
+        }));
+        return player;
+    }
+
+    void join(Player player) {
+        online.put(key(player.getUsername()), player);
+    }
+
+    void leave(Player player, Duration after) {
+        executor.schedule(() -> online.remove(key(player.getUsername()), player), after.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    RegisteredServer lobby() {
+        return lobby;
+    }
+
+    BrigadierCommand command() {
+        return command;
+    }
+
+    long kicks() {
+        return kicks.get();
+    }
+
+    long wrongKicks() {
+        return wrongKicks.get();
+    }
+
+    long pluginMessages() {
+        return pluginMessages.get();
+    }
+
+    long loggedErrors() {
+        return loggedErrors.get();
+    }
+
+    long loggedWarnings() {
+        return loggedWarnings.get();
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private ProxyServer createServer() {
+        Scheduler scheduler = Fakes.of(Scheduler.class, (method, args) ->
+                method.equals("buildTask") ? taskBuilder(args[0], args[1]) : Fakes.UNHANDLED);
+        EventManager events = Fakes.of(EventManager.class, (method, args) ->
+                method.equals("fire") ? CompletableFuture.completedFuture(args[0]) : Fakes.UNHANDLED);
+        CommandManager commands = Fakes.of(CommandManager.class, (method, args) -> {
+            if (method.equals("register")) {
+                for (Object arg : args) {
+                    if (arg instanceof BrigadierCommand brigadier) {
+                        command = brigadier;
+                    }
+                }
+                return null;
+            }
+            return Fakes.UNHANDLED;
+        });
+        return Fakes.of(ProxyServer.class, (method, args) -> switch (method) {
+            case "getPlayer" -> args[0] instanceof String name
+                    ? Optional.ofNullable(online.get(key(name)))
+                    : online.values().stream().filter(p -> p.getUniqueId().equals(args[0])).findFirst();
+            case "getAllPlayers" -> List.copyOf(online.values());
+            case "getPlayerCount" -> online.size();
+            case "getServer" -> Optional.of(lobby).filter(s -> s.getServerInfo().getName().equalsIgnoreCase((String) args[0]));
+            case "getAllServers" -> List.of(lobby);
+            case "getScheduler" -> scheduler;
+            case "getEventManager" -> events;
+            case "getCommandManager" -> commands;
+            case "getConsoleCommandSource" -> console;
+            default -> Fakes.UNHANDLED;
+        });
+    }
+
+    private Scheduler.TaskBuilder taskBuilder(Object plugin, Object work) {
+        long[] delayAndRepeat = new long[2];
+        AtomicReference<Scheduler.TaskBuilder> self = new AtomicReference<>();
+        Scheduler.TaskBuilder builder = Fakes.of(Scheduler.TaskBuilder.class, (method, args) -> switch (method) {
+            case "delay" -> {
+                delayAndRepeat[0] = millis(args);
+                yield self.get();
+            }
+            case "repeat" -> {
+                delayAndRepeat[1] = millis(args);
+                yield self.get();
+            }
+            case "clearDelay" -> {
+                delayAndRepeat[0] = 0;
+                yield self.get();
+            }
+            case "clearRepeat" -> {
+                delayAndRepeat[1] = 0;
+                yield self.get();
+            }
+            case "schedule" -> schedule(plugin, work, delayAndRepeat[0], delayAndRepeat[1]);
+            default -> Fakes.UNHANDLED;
+        });
+        self.set(builder);
+        return builder;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ScheduledTask schedule(Object plugin, Object work, long delay, long repeat) {
+        AtomicReference<Future<?>> future = new AtomicReference<>();
+        ScheduledTask task = Fakes.of(ScheduledTask.class, (method, args) -> switch (method) {
+            case "plugin" -> plugin;
+            case "status" -> future.get().isCancelled() ? TaskStatus.CANCELLED
+                    : future.get().isDone() ? TaskStatus.FINISHED : TaskStatus.SCHEDULED;
+            case "cancel" -> {
+                future.get().cancel(false);
+                yield null;
+            }
+            default -> Fakes.UNHANDLED;
+        });
+        Runnable body = work instanceof Runnable runnable ? runnable : () -> ((Consumer<ScheduledTask>) work).accept(task);
+        Runnable guarded = () -> {
+            try {
+                body.run();
+            } catch (RuntimeException e) {
+                logger.error("Scheduled task failed", e);
+            }
+        };
+        future.set(repeat > 0
+                ? executor.scheduleAtFixedRate(guarded, delay, repeat, TimeUnit.MILLISECONDS)
+                : executor.schedule(guarded, delay, TimeUnit.MILLISECONDS));
+        return task;
+    }
+
+    private static long millis(Object[] args) {
+        return args.length == 1 ? ((Duration) args[0]).toMillis() : ((TimeUnit) args[1]).toMillis((Long) args[0]);
+    }
+
+    // Counts warnings and errors for the report; only errors are printed, and only with --verbose.
+    private Logger createLogger() {
+        return Fakes.of(Logger.class, (method, args) -> {
+            switch (method) {
+                case "getName" -> {
+                    return "yawl";
+                }
+                case "error" -> {
+                    loggedErrors.incrementAndGet();
+                    if (verbose && args.length > 0) {
+                        System.err.println("[yawl] ERROR " + args[0]);
+                        if (args[args.length - 1] instanceof Throwable error) {
+                            error.printStackTrace();
+                        }
+                    }
+                    return null;
+                }
+                case "warn" -> {
+                    loggedWarnings.incrementAndGet();
+                    return null;
+                }
+                case "trace", "debug", "info" -> {
+                    return null;
+                }
+                default -> {
+                    return Fakes.UNHANDLED;
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package org.renwixx.yawl.loadtest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+// Dynamic-proxy stand-ins for the Velocity interfaces. A handler answers the methods a fake cares
+// about and returns UNHANDLED for the rest, which then behave like a null object: default interface
+// methods run as written, builders return themselves, other interfaces get a nested null object.
+final class Fakes {
+    static final Object UNHANDLED = new Object();
+
+    @FunctionalInterface
+    interface Handler {
+        Object invoke(String method, Object[] args) throws Throwable;
+    }
+
+    private Fakes() {}
+
+    static <T> T of(Class<T> type) {
+        return of(type, (method, args) -> UNHANDLED);
+    }
+
+    static <T> T of(Class<T> type, Handler handler) {
+        InvocationHandler invocation = (proxy, method, args) -> {
+            Object[] arguments = args == null ? new Object[0] : args;
+            if (method.getDeclaringClass() == Object.class) {
+                return objectMethod(proxy, type, method, arguments);
+            }
+            Object result = handler.invoke(method.getName(), arguments);
+            if (result != UNHANDLED) {
+                return result;
+            }
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            return defaultValue(proxy, method.getReturnType());
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocation));
+    }
+
+    private static Object objectMethod(Object proxy, Class<?> type, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> "Fake" + type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+        };
+    }
+
+    private static Object defaultValue(Object proxy, Class<?> type) {
+        if (type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0.0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return '\0';
+        if (type == Optional.class) return Optional.empty();
+        if (type == CompletableFuture.class) return CompletableFuture.completedFuture(null);
+        if (type == List.class || type == Collection.class) return List.of();
+        if (type == Set.class) return Set.of();
+        if (type == Map.class) return Map.of();
+        if (type.isInstance(proxy)) return proxy;
+        if (type.isInterface()) return of(type);
+        return null;
+    }
+}
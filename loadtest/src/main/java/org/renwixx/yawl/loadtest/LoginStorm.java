@@ -0,0 +1,479 @@
+package org.renwixx.yawl.loadtest;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.event.Continuation;
+import com.velocitypowered.api.event.EventTask;
+import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.event.connection.PreLoginEvent;
+import com.velocitypowered.api.event.player.ServerPreConnectEvent;
+import com.velocitypowered.api.event.proxy.ProxyInitializeEvent;
+import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
+import com.velocitypowered.api.proxy.Player;
+import org.renwixx.yawl.BuildConstants;
+import org.renwixx.yawl.ConnectionListener;
+import org.renwixx.yawl.VelocityToBackendBridge;
+import org.renwixx.yawl.Yawl;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+// Drives ConnectionListener, VelocityToBackendBridge and WhitelistCommand through an in-memory proxy:
+// connections arrive open-loop at a fixed rate while an admin adds and removes players and reloads
+// the plugin. Prints a JSON report (or writes it to --out) and exits with 1 if any decision was wrong.
+//
+//   ./gradlew :loadtest:run --args="--rate=500 --duration=10 --reload-every=2"
+public final class LoginStorm {
+    private static final Duration DECISION_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Options options;
+    private final FakeProxy proxy;
+    private final Yawl plugin;
+    private final ConnectionListener listener;
+    private final VelocityToBackendBridge bridge;
+    private final CommandDispatcher<CommandSource> dispatcher = new CommandDispatcher<>();
+
+    // Measured phase.
+    private long[] latencies;
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong denied = new AtomicLong();
+    private final AtomicLong wrongAllowed = new AtomicLong();
+    private final AtomicLong wrongDenied = new AtomicLong();
+    private final AtomicLong undetermined = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong lastDecision = new AtomicLong();
+    private final List<Long> mutationLatencies = new ArrayList<>();
+    private final List<Long> reloadLatencies = new ArrayList<>();
+    private final AtomicLong commandFailures = new AtomicLong();
+    private long wrongKicks;
+
+    private LoginStorm(Options options, Path dataDirectory) {
+        this.options = options;
+        Set<String> members = new HashSet<>();
+        for (int i = 0; i < options.whitelistSize; i++) {
+            members.add(member(i));
+        }
+        this.proxy = new FakeProxy(members, 2, options.verbose);
+        this.plugin = new Yawl(proxy.server, proxy.logger, dataDirectory);
+        this.listener = new ConnectionListener(plugin);
+        this.bridge = new VelocityToBackendBridge(plugin, plugin.getLocaleManager());
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (List.of(args).contains("--help")) {
+            System.out.println(Options.USAGE);
+            return;
+        }
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(Options.USAGE);
+            System.exit(2);
+            return;
+        }
+        Path dataDirectory = Files.createTempDirectory("yawl-loadtest");
+        try {
+            prepareDataDirectory(options, dataDirectory);
+            LoginStorm storm = new LoginStorm(options, dataDirectory);
+            Report report = storm.run();
+            String json = report.toJson();
+            if (options.out != null) {
+                Files.writeString(options.out, json);
+            } else {
+                System.out.print(json);
+            }
+            System.exit(storm.wrongDecisions() > 0 ? 1 : 0);
+        } finally {
+            if (!options.keepData) {
+                deleteRecursively(dataDirectory);
+            } else {
+                System.err.println("Data directory kept at " + dataDirectory);
+            }
+        }
+    }
+
+    private Report run() throws Exception {
+        long initStart = System.nanoTime();
+        plugin.onProxyInitialization(new ProxyInitializeEvent());
+        plugin.getStartup().get(DECISION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        long initNanos = System.nanoTime() - initStart;
+        if (!plugin.isReady() || proxy.command() == null) {
+            throw new IllegalStateException("YAWL did not finish loading; rerun with --verbose to see its errors.");
+        }
+        dispatcher.getRoot().addChild(proxy.command().getNode());
+
+        if (options.warmupSeconds > 0) {
+            runArrivals((long) options.rate * options.warmupSeconds, false);
+        }
+
+        latencies = new long[(int) ((long) options.rate * options.durationSeconds)];
+        long kicksBefore = proxy.kicks();
+        long wrongKicksBefore = proxy.wrongKicks();
+        Admin admin = new Admin();
+        admin.start();
+        long start = System.nanoTime();
+        runArrivals(latencies.length, true);
+        admin.stop();
+        double seconds = Math.max(1, lastDecision.get() - start) / 1e9;
+
+        plugin.onProxyShutdown(new ProxyShutdownEvent());
+        proxy.shutdown();
+
+        wrongKicks = proxy.wrongKicks() - wrongKicksBefore;
+        return new Report()
+                .put("version", BuildConstants.VERSION)
+                .put("java", System.getProperty("java.version"))
+                .put("cpus", Runtime.getRuntime().availableProcessors())
+                .put("options", options.toReport())
+                .put("startupMillis", initNanos / 1_000_000L)
+                .put("attempts", latencies.length)
+                .put("allowed", allowed.get())
+                .put("denied", denied.get())
+                .put("undetermined", undetermined.get())
+                .put("failures", failures.get())
+                .put("wrongDecisions", new Report()
+                        .put("total", wrongDecisions())
+                        .put("allowed", wrongAllowed.get())
+                        .put("denied", wrongDenied.get())
+                        .put("kicked", wrongKicks))
+                .put("kicks", proxy.kicks() - kicksBefore)
+                .put("pluginMessages", proxy.pluginMessages())
+                .put("throughputPerSecond", Math.round(latencies.length / seconds * 10) / 10.0)
+                // Failed attempts never got a decision and are left out.
+                .put("decisionLatencyMicros", Report.latency(Arrays.stream(latencies).filter(l -> l > 0).toArray()))
+                .put("mutations", Report.latency(toArray(mutationLatencies)))
+                .put("reloads", Report.latency(toArray(reloadLatencies)))
+                .put("commandFailures", commandFailures.get())
+                .put("loggedErrors", proxy.loggedErrors())
+                .put("loggedWarnings", proxy.loggedWarnings());
+    }
+
+    private long wrongDecisions() {
+        return wrongAllowed.get() + wrongDenied.get() + wrongKicks;
+    }
+
+    // Open loop: each arrival has a fixed due time and its latency is measured from that time, so a
+    // stalled decision also delays (and is charged to) the arrivals queued behind it.
+    private void runArrivals(long count, boolean record) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(options.threads, runnable -> {
+            Thread thread = new Thread(runnable, "fake-netty-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        SplittableRandom random = new SplittableRandom(options.seed + (record ? 1 : 0));
+        long interval = 1_000_000_000L / options.rate;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            long due = start + i * interval;
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int attempt = i;
+            String name = pickName(random);
+            InetSocketAddress address = InetSocketAddress.createUnresolved(
+                    "10." + ((i >> 16) & 0xFF) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF), 50000 + (i & 0x3FFF));
+            workers.execute(() -> connect(attempt, due, name, address, record));
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(count / options.rate + DECISION_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+            throw new IllegalStateException("Connections did not finish in time.");
+        }
+    }
+
+    private String pickName(SplittableRandom random) {
+        double roll = random.nextDouble();
+        if (options.churnSize > 0 && roll < options.churnShare) {
+            return churn(random.nextInt(options.churnSize));
+        }
+        if (random.nextDouble() < options.hitRatio) {
+            return member(random.nextInt(options.whitelistSize));
+        }
+        return "guest" + random.nextInt(Integer.MAX_VALUE);
+    }
+
+    private void connect(int attempt, long due, String name, InetSocketAddress address, boolean record) {
+        boolean decision;
+        Player player = null;
+        try {
+            PreLoginEvent preLogin = new PreLoginEvent(proxy.connection(address), name);
+            await(listener.onPreLogin(preLogin));
+            decision = preLogin.getResult().isAllowed();
+            if (decision) {
+                player = proxy.player(name, address);
+                LoginEvent login = new LoginEvent(player);
+                await(listener.onPlayerLogin(login));
+                decision = login.getResult().isAllowed();
+            }
+        } catch (Exception e) {
+            if (record) failures.incrementAndGet();
+            if (options.verbose) e.printStackTrace();
+            return;
+        }
+        long now = System.nanoTime();
+        if (record) {
+            latencies[attempt] = Math.max(1, now - due);
+            lastDecision.accumulateAndGet(now, Math::max);
+            (decision ? allowed : denied).incrementAndGet();
+            if (name.startsWith("churn")) {
+                undetermined.incrementAndGet();
+            } else if (decision != name.startsWith("member")) {
+                (decision ? wrongAllowed : wrongDenied).incrementAndGet();
+            }
+        }
+        if (decision) {
+            proxy.join(player);
+            listener.onServerPreConnect(new ServerPreConnectEvent(player, proxy.lobby()));
+            bridge.sendWhitelistUpdate(player);
+            proxy.leave(player, options.session);
+        }
+    }
+
+    private static void await(EventTask task) throws Exception {
+        if (task == null) {
+            return;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        task.execute(new Continuation() {
+            @Override
+            public void resume() {
+                done.complete(null);
+            }
+
+            @Override
+            public void resumeWithException(Throwable exception) {
+                done.completeExceptionally(exception);
+            }
+        });
+        done.get(DECISION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static String member(int i) {
+        return "member" + i;
+    }
+
+    private static String churn(int i) {
+        return "churn" + i;
+    }
+
+    private static long[] toArray(List<Long> values) {
+        synchronized (values) {
+            return values.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    private static void prepareDataDirectory(Options options, Path dataDirectory) throws IOException {
+        if (options.config != null) {
+            Files.copy(options.config, dataDirectory.resolve("config.toml"));
+        }
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < options.whitelistSize; i++) {
+            lines.add(member(i));
+        }
+        // Half of the churn names start on the whitelist.
+        for (int i = 0; i < options.churnSize; i += 2) {
+            lines.add(churn(i));
+        }
+        Files.write(dataDirectory.resolve("whitelist.txt"), lines);
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    // The admin side: one console adding and removing churn names, another reloading the plugin.
+    private final class Admin {
+        private volatile boolean running = true;
+        private final List<Thread> threads = new ArrayList<>();
+
+        void start() {
+            if (options.mutationRate > 0 && options.churnSize > 0) {
+                threads.add(startDaemon("admin-mutations", this::mutate));
+            }
+            if (!options.reloadEvery.isZero()) {
+                threads.add(startDaemon("admin-reloads", this::reload));
+            }
+        }
+
+        private Thread startDaemon(String name, Runnable work) {
+            Thread thread = new Thread(work, name);
+            thread.setDaemon(true);
+            thread.start();
+            return thread;
+        }
+
+        void stop() throws InterruptedException {
+            running = false;
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        private void mutate() {
+            SplittableRandom random = new SplittableRandom(options.seed + 2);
+            long interval = 1_000_000_000L / options.mutationRate;
+            long next = System.nanoTime();
+            while (running) {
+                String name = churn(random.nextInt(options.churnSize));
+                execute((random.nextBoolean() ? "yawl add " : "yawl remove ") + name, mutationLatencies);
+                next += interval;
+                sleepUntil(next);
+            }
+        }
+
+        private void reload() {
+            long next = System.nanoTime() + options.reloadEvery.toNanos();
+            while (sleepUntil(next)) {
+                execute("yawl reload", reloadLatencies);
+                next += options.reloadEvery.toNanos();
+            }
+        }
+
+        private boolean sleepUntil(long due) {
+            long wait;
+            while (running && (wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(Math.min(wait, 10_000_000L));
+            }
+            return running;
+        }
+
+        private void execute(String command, List<Long> latencies) {
+            long start = System.nanoTime();
+            try {
+                dispatcher.execute(command, proxy.console);
+            } catch (Exception e) {
+                commandFailures.incrementAndGet();
+                if (options.verbose) e.printStackTrace();
+                return;
+            }
+            synchronized (latencies) {
+                latencies.add(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private record Options(int rate, int durationSeconds, int warmupSeconds, int threads, int whitelistSize,
+                           double hitRatio, int churnSize, double churnShare, int mutationRate, Duration reloadEvery,
+                           Duration session, long seed, Path config, Path out, boolean keepData, boolean verbose) {
+        static final String USAGE = """
+                Options (all optional):
+                  --rate=500            connections per second
+                  --duration=10         measured seconds
+                  --warmup=3            unmeasured seconds before that, without admin activity
+                  --threads=<cpus>      threads handling connection events
+                  --whitelist=10000     whitelisted players
+                  --hit-ratio=0.8       share of the other connections that use a whitelisted name
+                  --churn=500           names the admin keeps adding and removing
+                  --churn-share=0.05    share of connections that use a churn name (not judged)
+                  --mutations=20        admin add/remove commands per second
+                  --reload-every=2      seconds between '/yawl reload' runs, 0 to disable
+                  --session=30          seconds an admitted player stays online
+                  --seed=42             random seed for names and commands
+                  --config=<file>       config.toml to use instead of the default
+                  --out=<file>          write the JSON report to a file instead of stdout
+                  --keep-data           keep the temporary data directory
+                  --verbose             print errors logged by the plugin
+                """;
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Unexpected argument '" + arg + "'.");
+                }
+                int eq = arg.indexOf('=');
+                values.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+            }
+            try {
+                String config = values.remove("config");
+                String out = values.remove("out");
+                Options options = new Options(
+                        positive(values.remove("rate"), 500, "rate"),
+                        positive(values.remove("duration"), 10, "duration"),
+                        atLeastZero(values.remove("warmup"), 3, "warmup"),
+                        positive(values.remove("threads"), Runtime.getRuntime().availableProcessors(), "threads"),
+                        positive(values.remove("whitelist"), 10_000, "whitelist"),
+                        ratio(values.remove("hit-ratio"), 0.8, "hit-ratio"),
+                        atLeastZero(values.remove("churn"), 500, "churn"),
+                        ratio(values.remove("churn-share"), 0.05, "churn-share"),
+                        atLeastZero(values.remove("mutations"), 20, "mutations"),
+                        Duration.ofMillis((long) (Double.parseDouble(values.getOrDefault("reload-every", "2")) * 1000)),
+                        Duration.ofSeconds(atLeastZero(values.remove("session"), 30, "session")),
+                        Long.parseLong(values.getOrDefault("seed", "42")),
+                        config == null ? null : Path.of(config),
+                        out == null ? null : Path.of(out),
+                        Boolean.parseBoolean(values.remove("keep-data")),
+                        Boolean.parseBoolean(values.remove("verbose")));
+                values.remove("reload-every");
+                values.remove("seed");
+                if (!values.isEmpty()) {
+                    throw new IllegalArgumentException("Unknown option(s): " + values.keySet());
+                }
+                return options;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number: " + e.getMessage());
+            }
+        }
+
+        private static int positive(String value, int fallback, String name) {
+            int parsed = value == null ? fallback : Integer.parseInt(value);
+            if (parsed <= 0) throw new IllegalArgumentException("--" + name + " must be positive.");
+            return parsed;
+        }
+
+        private static int atLeastZero(String value, int fallback, String name) {
+            int parsed = value == null ? fallback : Integer.parseInt(value);
+            if (parsed < 0) throw new IllegalArgumentException("--" + name + " must not be negative.");
+            return parsed;
+        }
+
+        private static double ratio(String value, double fallback, String name) {
+            double parsed = value == null ? fallback : Double.parseDouble(value);
+            if (parsed < 0 || parsed > 1) throw new IllegalArgumentException("--" + name + " must be between 0 and 1.");
+            return parsed;
+        }
+
+        Report toReport() {
+            return new Report()
+                    .put("rate", rate)
+                    .put("durationSeconds", durationSeconds)
+                    .put("warmupSeconds", warmupSeconds)
+                    .put("threads", threads)
+                    .put("whitelist", whitelistSize)
+                    .put("hitRatio", hitRatio)
+                    .put("churn", churnSize)
+                    .put("churnShare", churnShare)
+                    .put("mutationsPerSecond", mutationRate)
+                    .put("reloadEveryMillis", reloadEvery.toMillis())
+                    .put("sessionSeconds", session.toSeconds())
+                    .put("seed", seed)
+                    .put("config", config == null ? "default" : config.getFileName().toString());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.renwixx.yawl.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Ordered key/value tree written as JSON, so runs can be diffed or fed to a dashboard as-is.
+final class Report {
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    Report put(String key, Object value) {
+        values.put(key, value);
+        return this;
+    }
+
+    // Percentiles in microseconds over the given nanosecond samples; the array is sorted in place.
+    static Report latency(long[] nanos) {
+        Arrays.sort(nanos);
+        return new Report()
+                .put("samples", nanos.length)
+                .put("p50", micros(percentile(nanos, 0.50)))
+                .put("p99", micros(percentile(nanos, 0.99)))
+                .put("p999", micros(percentile(nanos, 0.999)))
+                .put("max", micros(nanos.length == 0 ? 0 : nanos[nanos.length - 1]));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double micros(long nanos) {
+        return Math.round(nanos / 100.0) / 10.0;
+    }
+
+    String toJson() {
+        StringBuilder out = new StringBuilder();
+        write(out, this, 0);
+        return out.append('\n').toString();
+    }
+
+    private static void write(StringBuilder out, Object value, int depth) {
+        if (value instanceof Report report) {
+            out.append("{\n");
+            int i = 0;
+            for (Map.Entry<String, Object> entry : report.values.entrySet()) {
+                out.append("  ".repeat(depth + 1));
+                string(out, entry.getKey());
+                out.append(": ");
+                write(out, entry.getValue(), depth + 1);
+                out.append(++i < report.values.size() ? ",\n" : "\n");
+            }
+            out.append("  ".repeat(depth)).append('}');
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else if (value == null) {
+            out.append("null");
+        } else {
+            string(out, value.toString());
+        }
+    }
+
+    private static void string(StringBuilder out, String value) {
+        out.append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                default -> {
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+                }
+            }
+        }
+        out.append('"');
+    }
+}
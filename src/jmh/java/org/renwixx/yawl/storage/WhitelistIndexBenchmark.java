@@ -0,0 +1,65 @@
+package org.renwixx.yawl.storage;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Login lookup path. With the gc profiler, gc.alloc.rate.norm should be ~0 B/op for every benchmark.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WhitelistIndexBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private WhitelistIndex index;
+    private String[] hits;
+    private String[] misses;
+    private String[] patternHits;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        index = new WhitelistIndex(false);
+        Map<String, WhitelistEntry> entries = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String name = "Player_" + i;
+            String canonical = name.toLowerCase(Locale.ROOT);
+            Long expiry = i % 2 == 0 ? null : System.currentTimeMillis() + TimeUnit.DAYS.toMillis(30);
+            entries.put(canonical, new WhitelistEntry(canonical, name, expiry));
+        }
+        for (int i = 0; i < 100; i++) {
+            String pattern = "event_team" + i + "_*";
+            entries.put(pattern, new WhitelistEntry(pattern, pattern, null));
+        }
+        index.replaceAll(entries);
+
+        hits = new String[1024];
+        misses = new String[1024];
+        patternHits = new String[1024];
+        for (int i = 0; i < hits.length; i++) {
+            hits[i] = "PLAYER_" + (i * 7919 % size);
+            misses[i] = "Stranger" + i;
+            patternHits[i] = "Event_Team" + (i % 100) + "_Member" + i;
+        }
+    }
+
+    @Benchmark
+    public boolean hit() {
+        return index.isWhitelisted(hits[cursor++ & 1023]);
+    }
+
+    @Benchmark
+    public boolean miss() {
+        return index.isWhitelisted(misses[cursor++ & 1023]);
+    }
+
+    @Benchmark
+    public boolean patternHit() {
+        return index.isWhitelisted(patternHits[cursor++ & 1023]);
+    }
+}
@@ -0,0 +1,54 @@
+package org.renwixx.yawl;
+
+import com.velocitypowered.api.proxy.Player;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Remembers each player's 'yawl.bypass' result for a while, so kick passes over every online player do
+// not ask the permission plugin again. Filled at login and dropped on disconnect or '/yawl cache clear'.
+public final class BypassCache {
+    private record Cached(boolean bypass, long expiresAtNanos) {}
+
+    private final Map<UUID, Cached> cache = new ConcurrentHashMap<>();
+    private volatile long ttlNanos;
+
+    public void setTtl(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        if (ttlNanos <= 0) {
+            cache.clear();
+        }
+    }
+
+    public boolean hasBypass(Player player) {
+        long ttl = ttlNanos;
+        if (ttl <= 0) {
+            return player.hasPermission(Permissions.BYPASS);
+        }
+        long now = System.nanoTime();
+        Cached cached = cache.get(player.getUniqueId());
+        if (cached != null && now - cached.expiresAtNanos() < 0) {
+            return cached.bypass();
+        }
+        boolean bypass = player.hasPermission(Permissions.BYPASS);
+        cache.put(player.getUniqueId(), new Cached(bypass, now + ttl));
+        return bypass;
+    }
+
+    public void invalidate(UUID playerId) {
+        cache.remove(playerId);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    // Returns how many results were forgotten.
+    public int clear() {
+        int size = cache.size();
+        cache.clear();
+        return size;
+    }
+}
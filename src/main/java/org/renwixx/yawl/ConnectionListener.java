@@ -1,28 +1,157 @@
 package org.renwixx.yawl;
 
+import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
 import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.event.connection.PreLoginEvent;
+import com.velocitypowered.api.event.player.ServerPreConnectEvent;
 import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import org.renwixx.yawl.audit.AuditEvent;
+import org.renwixx.yawl.audit.AuditLog;
+import org.renwixx.yawl.jfr.LoginDecisionEvent;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 
 public record ConnectionListener(Yawl plugin) {
 
     @Subscribe
-    public void onPlayerLogin(LoginEvent event) {
-        if (!plugin.getConfig().isEnabled()) {
-            return;
+    public EventTask onPreLogin(PreLoginEvent event) {
+        if (!isEnabled() || !event.getResult().isAllowed()) {
+            return null;
+        }
+        if (!plugin.isReady()) {
+            return whenReady(() -> checkPreLogin(event), () -> event.setResult(
+                    PreLoginEvent.PreLoginComponentResult.denied(plugin.getLocaleManager().getMessage("still-loading"))));
+        }
+        checkPreLogin(event);
+        return null;
+    }
+
+    private void checkPreLogin(PreLoginEvent event) {
+        LoginDecisionEvent decision = new LoginDecisionEvent();
+        decision.begin();
+        if (!plugin.passesNetworkGate(event.getConnection().getRemoteAddress())) {
+            plugin.getAuditLog().record(AuditLog.SYSTEM, AuditEvent.Action.DENY_NETWORK, event.getUsername(),
+                    AuditEvent.NONE, AuditEvent.NONE, hostOf(event.getConnection().getRemoteAddress()));
+            event.setResult(PreLoginEvent.PreLoginComponentResult.denied(
+                    plugin.getLocaleManager().getMessage("network-not-allowed")
+            ));
+            commit(decision, event.getUsername(), "denied-network");
+        } else {
+            commit(decision, event.getUsername(), "passed-network");
+        }
+    }
+
+    @Subscribe
+    public EventTask onPlayerLogin(LoginEvent event) {
+        if (!isEnabled()) {
+            return null;
         }
 
         Player player = event.getPlayer();
-        if (player.hasPermission(Permissions.BYPASS)) {
-            return;
+        LoginDecisionEvent decision = new LoginDecisionEvent();
+        decision.begin();
+        // Fills the bypass cache, so later kick passes need no permission lookup for this player.
+        if (plugin.getBypassCache().hasBypass(player)) {
+            commit(decision, player.getUsername(), "bypass");
+            return null;
+        }
+        // A login held until startup completes records the hold as part of its decision time.
+        if (!plugin.isReady()) {
+            return whenReady(() -> checkLogin(event, player, decision), () -> {
+                event.setResult(LoginEvent.ComponentResult.denied(plugin.getLocaleManager().getMessage("still-loading")));
+                commit(decision, player.getUsername(), "denied-loading");
+            });
         }
+        checkLogin(event, player, decision);
+        return null;
+    }
 
+    private void checkLogin(LoginEvent event, Player player, LoginDecisionEvent decision) {
         String playerName = player.getUsername();
 
-        if (!plugin.isWhitelisted(playerName)) {
+        if (!plugin.isAllowed(playerName, player.getRemoteAddress())) {
+            plugin.getAuditLog().record(AuditLog.SYSTEM, AuditEvent.Action.DENY_LOGIN, playerName,
+                    AuditEvent.NONE, AuditEvent.NONE, hostOf(player.getRemoteAddress()));
             event.setResult(LoginEvent.ComponentResult.denied(
                     plugin.getLocaleManager().getMessage("kick-message")
             ));
+            plugin.getBypassCache().invalidate(player.getUniqueId());
+            plugin.getRecentDenials().record(playerName, player.getUniqueId(), hostOf(player.getRemoteAddress()));
+            commit(decision, playerName, "denied");
+        } else {
+            if (player.isOnlineMode()) {
+                plugin.getUuidResolver().remember(playerName, player.getUniqueId());
+            }
+            commit(decision, playerName, "allowed");
+        }
+    }
+
+    @Subscribe
+    public void onServerPreConnect(ServerPreConnectEvent event) {
+        // Only bypass players can be online before loading finishes.
+        if (!plugin.isReady() || !plugin.getConfig().isEnabled() || !event.getResult().isAllowed()) {
+            return;
         }
+
+        RegisteredServer target = event.getResult().getServer().orElse(event.getOriginalServer());
+        Player player = event.getPlayer();
+        if (plugin.canAccessServer(player.getUsername(), target) || plugin.getBypassCache().hasBypass(player)) {
+            return;
+        }
+
+        event.setResult(ServerPreConnectEvent.ServerResult.denied());
+        plugin.getAuditLog().record(AuditLog.SYSTEM, AuditEvent.Action.DENY_SERVER, player.getUsername(),
+                AuditEvent.NONE, AuditEvent.NONE, target.getServerInfo().getName());
+        player.sendMessage(plugin.getLocaleManager().getMessageFor(player, "server-not-whitelisted",
+                Placeholder.unparsed("server", target.getServerInfo().getName())));
+    }
+
+    @Subscribe
+    public void onDisconnect(DisconnectEvent event) {
+        plugin.getBypassCache().invalidate(event.getPlayer().getUniqueId());
+    }
+
+    // Until config.toml has been read once the plugin counts as enabled, so logins are never let through unchecked.
+    private boolean isEnabled() {
+        PluginConfig config = plugin.getConfig();
+        return config == null || config.isEnabled();
+    }
+
+    // Applies startup.while-loading: deny straight away, or suspend the event until loading completes
+    // and then run the normal check, denying if the hold timeout passes first. Without a config, denies.
+    private EventTask whenReady(Runnable check, Runnable deny) {
+        PluginConfig config = plugin.getConfig();
+        if (config == null || config.getStartupMode() == PluginConfig.StartupMode.DENY) {
+            deny.run();
+            return null;
+        }
+        return EventTask.resumeWhenComplete(plugin.getStartup().copy()
+                .orTimeout(config.getStartupHoldTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .handle((ignored, error) -> {
+                    if (error == null && plugin.isReady()) {
+                        check.run();
+                    } else {
+                        deny.run();
+                    }
+                    return null;
+                }));
+    }
+
+    // Fields are only filled in while a recording has the event enabled.
+    private static void commit(LoginDecisionEvent decision, String player, String result) {
+        if (decision.shouldCommit()) {
+            decision.player = player;
+            decision.result = result;
+            decision.commit();
+        }
+    }
+
+    private static String hostOf(InetSocketAddress address) {
+        return address == null ? null : address.getHostString();
     }
-}
\ No newline at end of file
+}
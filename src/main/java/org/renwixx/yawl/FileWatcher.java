@@ -0,0 +1,107 @@
+package org.renwixx.yawl;
+
+import com.velocitypowered.api.scheduler.ScheduledTask;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Watches the data directory and the locales and profiles folders and calls back once per file after its events
+// have been quiet for the debounce period, so an editor's write-rename-touch burst causes one reload.
+public final class FileWatcher {
+    private final Yawl plugin;
+    private final Logger logger;
+    private final Path dataDirectory;
+    private final Path localesDirectory;
+    private final Path profilesDirectory;
+    private final Duration debounce;
+    private final Consumer<Path> onChange;
+    private final Map<Path, ScheduledTask> pending = new ConcurrentHashMap<>();
+    private WatchService watchService;
+    private Thread thread;
+
+    public FileWatcher(Yawl plugin, Path dataDirectory, Duration debounce, Consumer<Path> onChange) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+        this.dataDirectory = dataDirectory;
+        this.localesDirectory = dataDirectory.resolve("locales");
+        this.profilesDirectory = dataDirectory.resolve("profiles");
+        this.debounce = debounce;
+        this.onChange = onChange;
+    }
+
+    public void start() {
+        try {
+            watchService = dataDirectory.getFileSystem().newWatchService();
+            dataDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            if (Files.isDirectory(localesDirectory)) {
+                localesDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+            if (Files.isDirectory(profilesDirectory)) {
+                profilesDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to start watching {} for changes.", dataDirectory, e);
+            return;
+        }
+        thread = new Thread(this::run, "yawl-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        } catch (IOException ignored) {}
+        pending.values().forEach(ScheduledTask::cancel);
+        pending.clear();
+    }
+
+    private void run() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+                Path file = directory.resolve((Path) event.context());
+                String name = file.getFileName().toString();
+                // Our own flushes write '<file>.tmp' first and move it into place.
+                if (!name.endsWith(".toml") && !name.endsWith(".txt")) continue;
+                schedule(file);
+            }
+            if (!key.reset()) {
+                logger.warn("Stopped watching {} because it is no longer accessible.", directory);
+            }
+        }
+    }
+
+    private void schedule(Path file) {
+        pending.compute(file, (path, previous) -> {
+            if (previous != null) {
+                previous.cancel();
+            }
+            return plugin.getServer().getScheduler()
+                    .buildTask(plugin, () -> {
+                        pending.remove(path);
+                        try {
+                            onChange.accept(path);
+                        } catch (Exception e) {
+                            logger.error("Failed to apply changes from {}", path.getFileName(), e);
+                        }
+                    })
+                    .delay(debounce)
+                    .schedule();
+        });
+    }
+}
@@ -5,49 +5,82 @@ import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.proxy.Player;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.renwixx.yawl.jfr.LocaleLoadEvent;
 import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LocaleManager {
     private final Yawl plugin;
     private final Path localesDirectory;
-    private String locale;
+    private volatile String locale = "en";
     private final Logger logger;
-    private Toml messages;
+    // Empty until the first load, so every key resolves from the bundled English locale meanwhile.
+    private volatile Messages messages = Messages.EMPTY;
+    private final Messages bundledDefaults;
+    // Client locales by language tag, parsed on first use; empty when no file exists for the tag.
+    private final Map<String, Optional<Messages>> clientMessages = new ConcurrentHashMap<>();
     private static final List<String> SUPPORTED_LOCALES = List.of(
             "en", "ru", "uk", "de", "fr", "es", "ar", "zh-cn", "ja", "pt-br", "tr"
     );
 
-    public LocaleManager(Path dataDirectory, Yawl plugin, String locale, Logger logger) {
+    public LocaleManager(Path dataDirectory, Yawl plugin, Logger logger) {
         this.localesDirectory = dataDirectory.resolve("locales");
         this.plugin = plugin;
-        this.locale = locale;
         this.logger = logger;
-        reload();
+        this.bundledDefaults = loadBundledDefaults();
     }
 
     public void reload() {
-        SUPPORTED_LOCALES.forEach(this::saveDefaultLocale);
+        loadDefaultMessages();
+        clientMessages.clear();
+    }
 
-        Path localeFile = localesDirectory.resolve(locale + ".toml");
+    // Reloads only what was read from one locale file: the default messages if it is the configured
+    // locale (or the English fallback), and the client locales resolved to it.
+    public void reloadFile(String localeCode) {
+        String code = localeCode.toLowerCase(Locale.ROOT);
+        if (code.equals(locale) || (code.equals("en") && !Files.exists(localesDirectory.resolve(locale + ".toml")))) {
+            loadDefaultMessages();
+        }
+        clientMessages.keySet().removeIf(tag -> tag.equals(code) || tag.startsWith(code + "-"));
+    }
+
+    private void loadDefaultMessages() {
+        Path localeFile = localeFile(locale);
         if (!Files.exists(localeFile)) {
             logger.warn("Locale file '{}' not found. Falling back to 'en.toml'.", locale + ".toml");
-            localeFile = localesDirectory.resolve("en.toml");
+            localeFile = localeFile("en");
         }
 
+        LocaleLoadEvent event = new LocaleLoadEvent();
+        event.begin();
         try {
-            this.messages = new Toml().read(localeFile.toFile());
+            this.messages = Messages.of(new Toml().read(localeFile.toFile()));
             logger.info("Successfully loaded messages from '{}'.", localeFile.getFileName());
         } catch (Exception e) {
             logger.error("Failed to load locale file '{}'. Using empty messages.", localeFile.getFileName(), e);
-            this.messages = new Toml();
+            this.messages = Messages.EMPTY;
+        }
+        commit(event, localeFile, this.messages);
+    }
+
+    // Bundled locales are extracted the first time they are needed instead of all at startup.
+    private Path localeFile(String localeCode) {
+        Path file = localesDirectory.resolve(localeCode + ".toml");
+        if (!Files.exists(file) && SUPPORTED_LOCALES.contains(localeCode)) {
+            saveDefaultLocale(localeCode);
         }
+        return file;
     }
 
     private void saveDefaultLocale(String localeCode) {
@@ -70,7 +103,33 @@ public class LocaleManager {
         }
     }
 
-    private Toml getTomlFor(CommandSource source) {
+    // Locale files already extracted to disk are never overwritten, so keys added in newer
+    // versions are resolved from the bundled English locale instead of showing as missing.
+    private Messages loadBundledDefaults() {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("locales/en.toml")) {
+            if (in != null) {
+                return Messages.of(new Toml().read(in));
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to read bundled default locale.", e);
+        }
+        return Messages.EMPTY;
+    }
+
+    private MessageTemplate getDefaultTemplate(String key) {
+        MessageTemplate template = messages.get(key);
+        return template != null ? template : bundledDefaults.get(key);
+    }
+
+    private MessageTemplate getTemplateFor(CommandSource source, String key) {
+        MessageTemplate template = getMessagesFor(source).get(key);
+        if (template == null) {
+            template = getDefaultTemplate(key);
+        }
+        return template != null ? template : MessageTemplate.compile("<red>Missing message for key: " + key + "</red>");
+    }
+
+    private Messages getMessagesFor(CommandSource source) {
         if (!plugin.shouldUseClientLocale() || !(source instanceof Player player)) {
             return this.messages;
         }
@@ -81,49 +140,93 @@ public class LocaleManager {
         }
 
         String langTag = playerLocale.toLanguageTag().toLowerCase(Locale.ROOT);
-        Path localeFile = localesDirectory.resolve(langTag + ".toml");
+        return clientMessages.computeIfAbsent(langTag, tag -> loadClientMessages(playerLocale, tag)).orElse(this.messages);
+    }
+
+    private Optional<Messages> loadClientMessages(Locale playerLocale, String langTag) {
+        Path localeFile = localeFile(langTag);
 
         if (!Files.exists(localeFile)) {
             String langCode = playerLocale.getLanguage().toLowerCase(Locale.ROOT);
             if (!langTag.equals(langCode)) {
-                localeFile = localesDirectory.resolve(langCode + ".toml");
+                localeFile = localeFile(langCode);
             }
         }
 
         if (Files.exists(localeFile)) {
+            LocaleLoadEvent event = new LocaleLoadEvent();
+            event.begin();
             try {
-                return new Toml().read(localeFile.toFile());
+                Messages loaded = Messages.of(new Toml().read(localeFile.toFile()));
+                commit(event, localeFile, loaded);
+                return Optional.of(loaded);
             } catch (Exception e) {
                 logger.warn("Failed to load messages for locale '{}', using default.", playerLocale.toLanguageTag(), e);
+                commit(event, localeFile, Messages.EMPTY);
             }
         }
 
-        return this.messages;
+        return Optional.empty();
+    }
+
+    private static void commit(LocaleLoadEvent event, Path localeFile, Messages loaded) {
+        event.end();
+        if (event.shouldCommit()) {
+            String fileName = localeFile.getFileName().toString();
+            event.locale = fileName.substring(0, fileName.length() - ".toml".length());
+            event.messages = loaded.templates().size();
+            event.succeeded = loaded != Messages.EMPTY;
+            event.commit();
+        }
     }
 
     public Component getMessageFor(CommandSource source, String key, TagResolver... placeholders) {
-        Toml specificMessages = getTomlFor(source);
-        String msg = specificMessages.getString(key, messages.getString(key, "<red>Missing message for key: " + key + "</red>"));
-        return Yawl.MINI_MESSAGE.deserialize(msg, placeholders);
+        return getTemplateFor(source, key).render(placeholders);
     }
 
     public String getMessageStringFor(CommandSource source, String key) {
-        Toml specificMessages = getTomlFor(source);
-        return specificMessages.getString(key, messages.getString(key, key));
+        MessageTemplate template = getMessagesFor(source).get(key);
+        if (template == null) {
+            template = getDefaultTemplate(key);
+        }
+        return template != null ? template.raw() : key;
     }
 
 
     public String getMessageString(String key) {
-        return messages.getString(key, "<red>Missing message for key: " + key + "</red>");
+        MessageTemplate template = getDefaultTemplate(key);
+        return template != null ? template.raw() : "<red>Missing message for key: " + key + "</red>";
     }
 
     public Component getMessage(String key, TagResolver... placeholders) {
-        String message = getMessageString(key);
-        return Yawl.MINI_MESSAGE.deserialize(message, placeholders);
+        MessageTemplate template = getDefaultTemplate(key);
+        if (template == null) {
+            template = MessageTemplate.compile(getMessageString(key));
+        }
+        return template.render(placeholders);
     }
 
     public void setLocale(String locale) {
         this.locale = locale;
         reload();
     }
+
+    // Every message of one locale file, compiled when the file is loaded.
+    private record Messages(Map<String, MessageTemplate> templates) {
+        static final Messages EMPTY = new Messages(Map.of());
+
+        static Messages of(Toml toml) {
+            Map<String, MessageTemplate> templates = new HashMap<>();
+            for (Map.Entry<String, Object> entry : toml.entrySet()) {
+                if (entry.getValue() instanceof String raw) {
+                    templates.put(entry.getKey(), MessageTemplate.compile(raw));
+                }
+            }
+            return new Messages(Map.copyOf(templates));
+        }
+
+        MessageTemplate get(String key) {
+            return templates.get(key);
+        }
+    }
 }
\ No newline at end of file
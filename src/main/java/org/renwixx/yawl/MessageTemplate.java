@@ -0,0 +1,127 @@
+package org.renwixx.yawl;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.minimessage.Context;
+import net.kyori.adventure.text.minimessage.tag.Inserting;
+import net.kyori.adventure.text.minimessage.tag.Tag;
+import net.kyori.adventure.text.minimessage.tag.resolver.ArgumentQueue;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A locale message parsed once. Tags that MiniMessage does not know are placeholders: they are parsed
+// into marker components ("slots") so that rendering only swaps the markers for the supplied values
+// instead of running the MiniMessage parser again. Messages without slots render as a shared Component.
+final class MessageTemplate {
+    private static final String SLOT_PREFIX = "yawl.slot.";
+
+    private final String raw;
+    private final Component compiled;
+    private final boolean hasSlots;
+    // Slots MiniMessage put somewhere we do not walk (e.g. hover text); such messages are parsed per call.
+    private final boolean parseOnRender;
+
+    private MessageTemplate(String raw, Component compiled, boolean hasSlots, boolean parseOnRender) {
+        this.raw = raw;
+        this.compiled = compiled;
+        this.hasSlots = hasSlots;
+        this.parseOnRender = parseOnRender;
+    }
+
+    static MessageTemplate compile(String raw) {
+        Component compiled = Yawl.MINI_MESSAGE.deserialize(raw, SlotResolver.INSTANCE);
+        return new MessageTemplate(raw, compiled, hasSlot(compiled), hasSlotInHover(compiled));
+    }
+
+    String raw() {
+        return raw;
+    }
+
+    Component render(TagResolver... placeholders) {
+        if (parseOnRender) {
+            return Yawl.MINI_MESSAGE.deserialize(raw, placeholders);
+        }
+        if (!hasSlots) {
+            return compiled;
+        }
+        // Placeholder.unparsed/component resolve to a fixed inserted component; anything smarter
+        // (e.g. Placeholder.parsed) needs the real parser.
+        for (TagResolver placeholder : placeholders) {
+            if (!(placeholder instanceof TagResolver.Single single) || !(single.tag() instanceof Inserting)) {
+                return Yawl.MINI_MESSAGE.deserialize(raw, placeholders);
+            }
+        }
+        return fill(compiled, placeholders);
+    }
+
+    private static Component fill(Component component, TagResolver[] placeholders) {
+        if (component instanceof TranslatableComponent slot && slot.key().startsWith(SLOT_PREFIX)) {
+            String name = slot.key().substring(SLOT_PREFIX.length());
+            return valueOf(name, placeholders).applyFallbackStyle(slot.style());
+        }
+        List<Component> children = component.children();
+        List<Component> filled = null;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component replaced = fill(child, placeholders);
+            if (replaced != child) {
+                if (filled == null) filled = new ArrayList<>(children);
+                filled.set(i, replaced);
+            }
+        }
+        return filled == null ? component : component.children(filled);
+    }
+
+    private static Component valueOf(String name, TagResolver[] placeholders) {
+        for (TagResolver placeholder : placeholders) {
+            TagResolver.Single single = (TagResolver.Single) placeholder;
+            if (single.key().equals(name)) {
+                return ((Inserting) single.tag()).value();
+            }
+        }
+        // Same output MiniMessage gives for a tag nobody resolves.
+        return Component.text("<" + name + ">");
+    }
+
+    private static boolean isSlot(Component component) {
+        return component instanceof TranslatableComponent slot && slot.key().startsWith(SLOT_PREFIX);
+    }
+
+    private static boolean hasSlot(Component component) {
+        if (isSlot(component)) return true;
+        for (Component child : component.children()) {
+            if (hasSlot(child)) return true;
+        }
+        return false;
+    }
+
+    private static boolean hasSlotInHover(Component component) {
+        HoverEvent<?> hover = component.hoverEvent();
+        if (hover != null && hover.value() instanceof Component text && hasSlot(text)) return true;
+        for (Component child : component.children()) {
+            if (hasSlotInHover(child)) return true;
+        }
+        return false;
+    }
+
+    private static final class SlotResolver implements TagResolver {
+        static final SlotResolver INSTANCE = new SlotResolver();
+
+        @Override
+        public Tag resolve(String name, ArgumentQueue arguments, Context ctx) {
+            // MiniMessage asks every resolver in turn without calling has() first.
+            if (!has(name)) {
+                return null;
+            }
+            return Tag.selfClosingInserting(Component.translatable(SLOT_PREFIX + name));
+        }
+
+        @Override
+        public boolean has(String name) {
+            return !TagResolver.standard().has(name);
+        }
+    }
+}
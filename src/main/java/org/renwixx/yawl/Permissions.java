@@ -9,7 +9,14 @@ public final class Permissions {
     public static final String EXTEND = COMMAND_BASE + "extend";
     public static final String REMOVE = COMMAND_BASE + "remove";
     public static final String LIST = COMMAND_BASE + "list";
+    public static final String NETWORK = COMMAND_BASE + "network";
     public static final String RELOAD = COMMAND_BASE + "reload";
+    public static final String HISTORY = COMMAND_BASE + "history";
+    public static final String CACHE = COMMAND_BASE + "cache";
+    public static final String SCHEDULE = COMMAND_BASE + "schedule";
+    public static final String EXPIRING = COMMAND_BASE + "expiring";
+    public static final String PROFILE = COMMAND_BASE + "profile";
+    public static final String RECENT = COMMAND_BASE + "recent";
 
     private Permissions() { }
 }
\ No newline at end of file
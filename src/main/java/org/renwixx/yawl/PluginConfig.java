@@ -5,16 +5,56 @@ import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 public class PluginConfig {
+    public enum NetworkMode { OFF, OR, AND }
+    public enum StartupMode { DENY, HOLD }
+
     private final boolean enabled;
     private final String locale;
     private final boolean caseSensitive;
     private final boolean useClientLocale;
     private final boolean kickActiveOnRevoke;
     private final long placeholderReloadInterval;
+    private final Map<String, List<String>> serverGroups;
+    private final Map<String, List<String>> schedules;
+    private final ZoneId scheduleZone;
+    private final NetworkMode networkMode;
+    private final boolean watchFiles;
+    private final long watchDebounceMillis;
+    private final boolean auditEnabled;
+    private final int auditBufferSize;
+    private final long auditMaxFileBytes;
+    private final Duration auditRotateInterval;
+    private final boolean auditCompress;
+    private final int auditMaxFiles;
+    private final long retentionGraceMillis;
+    private final boolean retentionArchive;
+    private final int retentionBatchSize;
+    private final StartupMode startupMode;
+    private final Duration startupHoldTimeout;
+    private final Duration bypassCacheTtl;
+    private final int lookupCacheSize;
+    private final Duration negativeCacheTtl;
+    private final int recentDenialsSize;
+    private final boolean uuidResolveEnabled;
+    private final URI uuidEndpoint;
+    private final int uuidBatchSize;
+    private final int uuidMaxConcurrentRequests;
+    private final Duration uuidCacheTtl;
+    private final Duration uuidNegativeCacheTtl;
 
     public PluginConfig(Path dataDirectory, Logger logger) {
         Path configFile = saveDefaultConfig(dataDirectory, logger);
@@ -31,6 +71,114 @@ public class PluginConfig {
         this.useClientLocale = toml.getBoolean("settings.use-client-locale", false);
         this.kickActiveOnRevoke = toml.getBoolean("settings.kick-active-on-revoke", true);
         this.placeholderReloadInterval = toml.getLong("settings.placeholder-reload-interval", 2L);
+        this.serverGroups = readServerGroups(toml);
+        this.schedules = readSchedules(toml);
+        this.scheduleZone = readZone(toml.getString("schedules.timezone", ""), logger);
+        this.networkMode = readNetworkMode(toml.getString("network.mode", "or"), logger);
+        this.watchFiles = toml.getBoolean("file-watcher.enabled", false);
+        this.watchDebounceMillis = Math.max(50L, toml.getLong("file-watcher.debounce-millis", 500L));
+        this.auditEnabled = toml.getBoolean("audit.enabled", true);
+        this.auditBufferSize = (int) Math.min(1L << 20, Math.max(64L, toml.getLong("audit.buffer-size", 8192L)));
+        this.auditMaxFileBytes = Math.max(16L, toml.getLong("audit.max-file-size-kb", 5120L)) * 1024L;
+        this.auditRotateInterval = Duration.ofHours(Math.max(1L, toml.getLong("audit.rotate-hours", 24L)));
+        this.auditCompress = toml.getBoolean("audit.compress", true);
+        this.auditMaxFiles = (int) Math.max(1L, toml.getLong("audit.max-files", 30L));
+        long graceDays = toml.getLong("retention.grace-days", 30L);
+        this.retentionGraceMillis = graceDays < 0 ? -1L : Duration.ofDays(graceDays).toMillis();
+        this.retentionArchive = toml.getBoolean("retention.archive", true);
+        this.retentionBatchSize = (int) Math.max(1L, toml.getLong("retention.batch-size", 500L));
+        this.startupMode = readStartupMode(toml.getString("startup.while-loading", "hold"), logger);
+        this.startupHoldTimeout = Duration.ofSeconds(Math.max(1L, toml.getLong("startup.hold-timeout-seconds", 10L)));
+        this.bypassCacheTtl = Duration.ofSeconds(Math.max(0L, toml.getLong("cache.bypass-ttl-seconds", 300L)));
+        this.lookupCacheSize = (int) Math.min(1_000_000L, Math.max(0L, toml.getLong("cache.lookup-size", 10_000L)));
+        this.negativeCacheTtl = Duration.ofSeconds(Math.max(1L, toml.getLong("cache.negative-ttl-seconds", 30L)));
+        this.recentDenialsSize = (int) Math.min(10_000L, Math.max(0L, toml.getLong("recent-denials.size", 100L)));
+        this.uuidResolveEnabled = toml.getBoolean("uuid.enabled", false);
+        this.uuidEndpoint = readEndpoint(toml.getString("uuid.endpoint",
+                "https://api.minecraftservices.com/minecraft/profile/lookup/bulk/byname"), logger);
+        this.uuidBatchSize = (int) Math.min(100L, Math.max(1L, toml.getLong("uuid.batch-size", 10L)));
+        this.uuidMaxConcurrentRequests = (int) Math.min(16L, Math.max(1L, toml.getLong("uuid.max-concurrent-requests", 2L)));
+        this.uuidCacheTtl = Duration.ofHours(Math.max(1L, toml.getLong("uuid.cache-ttl-hours", 168L)));
+        this.uuidNegativeCacheTtl = Duration.ofMinutes(Math.max(1L, toml.getLong("uuid.negative-ttl-minutes", 60L)));
+    }
+
+    private static NetworkMode readNetworkMode(String value, Logger logger) {
+        try {
+            return NetworkMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown network.mode '{}', expected one of off, or, and. Using 'or'.", value);
+            return NetworkMode.OR;
+        }
+    }
+
+    private static StartupMode readStartupMode(String value, Logger logger) {
+        try {
+            return StartupMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown startup.while-loading '{}', expected deny or hold. Using 'hold'.", value);
+            return StartupMode.HOLD;
+        }
+    }
+
+    private static URI readEndpoint(String value, Logger logger) {
+        try {
+            URI uri = URI.create(value.trim());
+            if ("http".equals(uri.getScheme()) || "https".equals(uri.getScheme())) {
+                return uri;
+            }
+        } catch (IllegalArgumentException ignored) {
+        }
+        logger.warn("Invalid uuid.endpoint '{}', expected an http(s) URL. UUIDs will not be resolved.", value);
+        return null;
+    }
+
+    private static Map<String, List<String>> readServerGroups(Toml toml) {
+        Toml table = toml.getTable("server-groups");
+        if (table == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : table.entrySet()) {
+            List<String> servers = new ArrayList<>();
+            if (entry.getValue() instanceof List<?> list) {
+                list.forEach(server -> servers.add(String.valueOf(server)));
+            } else if (entry.getValue() instanceof String server) {
+                servers.add(server);
+            }
+            groups.put(entry.getKey(), List.copyOf(servers));
+        }
+        return Collections.unmodifiableMap(groups);
+    }
+
+    private static Map<String, List<String>> readSchedules(Toml toml) {
+        Toml table = toml.getTable("schedules");
+        if (table == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, List<String>> schedules = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : table.entrySet()) {
+            if (entry.getKey().equals("timezone")) continue;
+            List<String> windows = new ArrayList<>();
+            if (entry.getValue() instanceof List<?> list) {
+                list.forEach(window -> windows.add(String.valueOf(window)));
+            } else if (entry.getValue() instanceof String window) {
+                windows.add(window);
+            }
+            schedules.put(entry.getKey(), List.copyOf(windows));
+        }
+        return Collections.unmodifiableMap(schedules);
+    }
+
+    private static ZoneId readZone(String value, Logger logger) {
+        if (value.isBlank()) {
+            return ZoneId.systemDefault();
+        }
+        try {
+            return ZoneId.of(value.trim());
+        } catch (DateTimeException e) {
+            logger.warn("Unknown schedules.timezone '{}', using the system time zone.", value);
+            return ZoneId.systemDefault();
+        }
     }
 
     private Path saveDefaultConfig(Path dataDirectory, Logger logger) {
@@ -71,4 +219,87 @@ public class PluginConfig {
     public long getPlaceholderReloadInterval() {
         return placeholderReloadInterval;
     }
-}
\ No newline at end of file
+    public Map<String, List<String>> getServerGroups() {
+        return serverGroups;
+    }
+    public Map<String, List<String>> getSchedules() {
+        return schedules;
+    }
+    public ZoneId getScheduleZone() {
+        return scheduleZone;
+    }
+    public NetworkMode getNetworkMode() {
+        return networkMode;
+    }
+    public boolean isWatchFiles() {
+        return watchFiles;
+    }
+    public long getWatchDebounceMillis() {
+        return watchDebounceMillis;
+    }
+    public boolean isAuditEnabled() {
+        return auditEnabled;
+    }
+    public int getAuditBufferSize() {
+        return auditBufferSize;
+    }
+    public long getAuditMaxFileBytes() {
+        return auditMaxFileBytes;
+    }
+    public Duration getAuditRotateInterval() {
+        return auditRotateInterval;
+    }
+    public boolean isAuditCompress() {
+        return auditCompress;
+    }
+    public int getAuditMaxFiles() {
+        return auditMaxFiles;
+    }
+    // Negative when expired entries are kept forever.
+    public long getRetentionGraceMillis() {
+        return retentionGraceMillis;
+    }
+    public boolean isRetentionArchive() {
+        return retentionArchive;
+    }
+    public int getRetentionBatchSize() {
+        return retentionBatchSize;
+    }
+    public StartupMode getStartupMode() {
+        return startupMode;
+    }
+    public Duration getStartupHoldTimeout() {
+        return startupHoldTimeout;
+    }
+    public Duration getBypassCacheTtl() {
+        return bypassCacheTtl;
+    }
+    public int getLookupCacheSize() {
+        return lookupCacheSize;
+    }
+    public Duration getNegativeCacheTtl() {
+        return negativeCacheTtl;
+    }
+    public int getRecentDenialsSize() {
+        return recentDenialsSize;
+    }
+    public boolean isUuidResolveEnabled() {
+        return uuidResolveEnabled;
+    }
+    // Null when the configured endpoint is not a valid http(s) URL.
+    public URI getUuidEndpoint() {
+        return uuidEndpoint;
+    }
+    public int getUuidBatchSize() {
+        return uuidBatchSize;
+    }
+    public int getUuidMaxConcurrentRequests() {
+        return uuidMaxConcurrentRequests;
+    }
+    public Duration getUuidCacheTtl() {
+        return uuidCacheTtl;
+    }
+    public Duration getUuidNegativeCacheTtl() {
+        return uuidNegativeCacheTtl;
+    }
+}
@@ -0,0 +1,105 @@
+package org.renwixx.yawl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// The most recent denied join attempts, one slot per name, for '/yawl recent'. Slots are claimed
+// round-robin from a fixed array in order of first denial: a name that is denied again only bumps its
+// counter and last-seen time and keeps its slot, so a flood of new names overwrites the names first
+// denied longest ago, even one that is still retrying. Recording takes no lock and never touches the disk.
+public final class RecentDenials {
+    public record Denial(String name, UUID uuid, String address, long firstSeenMillis, long lastSeenMillis, int count) {}
+
+    private static final class Slot {
+        private final String key;
+        private final long firstSeenMillis;
+        private final AtomicInteger count = new AtomicInteger(1);
+        private volatile String name;
+        private volatile UUID uuid;
+        private volatile String address;
+        private volatile long lastSeenMillis;
+
+        Slot(String key, String name, UUID uuid, String address, long nowMillis) {
+            this.key = key;
+            this.firstSeenMillis = nowMillis;
+            seen(name, uuid, address, nowMillis);
+        }
+
+        // The latest spelling, UUID and address win; they are what staff act on.
+        void seen(String name, UUID uuid, String address, long nowMillis) {
+            this.name = name;
+            if (uuid != null) this.uuid = uuid;
+            if (address != null) this.address = address;
+            this.lastSeenMillis = nowMillis;
+        }
+
+        Denial snapshot() {
+            return new Denial(name, uuid, address, firstSeenMillis, lastSeenMillis, count.get());
+        }
+    }
+
+    private record Buffer(AtomicReferenceArray<Slot> slots, AtomicLong cursor, Map<String, Slot> byName) {
+        Buffer(int size) {
+            this(new AtomicReferenceArray<>(size), new AtomicLong(), new ConcurrentHashMap<>());
+        }
+    }
+
+    private volatile Buffer buffer = new Buffer(0);
+
+    // Size 0 disables tracking. A new size starts from an empty buffer.
+    public void setSize(int size) {
+        if (size != buffer.slots().length()) {
+            buffer = new Buffer(Math.max(0, size));
+        }
+    }
+
+    public void record(String name, UUID uuid, String address) {
+        Buffer current = buffer;
+        int size = current.slots().length();
+        if (size == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        String key = name.toLowerCase(Locale.ROOT);
+        Slot existing = current.byName().get(key);
+        if (existing != null) {
+            existing.count.incrementAndGet();
+            existing.seen(name, uuid, address, now);
+            return;
+        }
+        Slot fresh = new Slot(key, name, uuid, address, now);
+        existing = current.byName().putIfAbsent(key, fresh);
+        if (existing != null) {
+            existing.count.incrementAndGet();
+            existing.seen(name, uuid, address, now);
+            return;
+        }
+        int index = (int) (current.cursor().getAndIncrement() % size);
+        Slot evicted = current.slots().getAndSet(index, fresh);
+        if (evicted != null) {
+            current.byName().remove(evicted.key, evicted);
+        }
+    }
+
+    // Most recently denied first.
+    public List<Denial> snapshot() {
+        AtomicReferenceArray<Slot> slots = buffer.slots();
+        List<Denial> denials = new ArrayList<>(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot != null) {
+                denials.add(slot.snapshot());
+            }
+        }
+        denials.sort(Comparator.comparingLong(Denial::lastSeenMillis).reversed());
+        return denials;
+    }
+}
@@ -0,0 +1,68 @@
+package org.renwixx.yawl;
+
+import org.renwixx.yawl.util.AccessSchedule;
+import org.slf4j.Logger;
+
+import java.time.ZoneId;
+import java.util.*;
+
+// The named access schedules from config.toml. Entries refer to a schedule by name, so every entry on
+// the same schedule shares one AccessSchedule and with it the cached open state.
+public final class ScheduleRegistry {
+    private final Logger logger;
+    private final ZoneId zone;
+    private final Map<String, AccessSchedule> schedules = new LinkedHashMap<>();
+    private final Map<String, AccessSchedule> unknown = new HashMap<>();
+
+    public ScheduleRegistry(Map<String, List<String>> windows, ZoneId zone, Logger logger) {
+        this.logger = logger;
+        this.zone = zone;
+        windows.forEach((name, list) -> {
+            try {
+                schedules.put(name.toLowerCase(Locale.ROOT), AccessSchedule.parse(name, list, zone));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring schedule '{}': {} Entries on it cannot join until it is fixed.", name, e.getMessage());
+            }
+        });
+    }
+
+    public Optional<AccessSchedule> get(String name) {
+        return Optional.ofNullable(schedules.get(name.trim().toLowerCase(Locale.ROOT)));
+    }
+
+    public AccessSchedule parseStored(String name) {
+        // Schedules no longer declared in the config stay attached (and closed), so they survive the next flush.
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        AccessSchedule known = schedules.get(key);
+        if (known != null) {
+            return known;
+        }
+        synchronized (unknown) {
+            return unknown.computeIfAbsent(key, k -> {
+                logger.warn("Schedule '{}' is not defined in config.toml; entries on it cannot join.", name.trim());
+                return AccessSchedule.never(name.trim(), zone);
+            });
+        }
+    }
+
+    public Collection<AccessSchedule> all() {
+        return Collections.unmodifiableCollection(schedules.values());
+    }
+
+    public List<String> names() {
+        return schedules.values().stream().map(AccessSchedule::name).toList();
+    }
+
+    // The earliest moment any schedule opens or closes, or Long.MAX_VALUE if none ever does.
+    public long nextTransition(long nowMillis) {
+        long next = Long.MAX_VALUE;
+        for (AccessSchedule schedule : schedules.values()) {
+            next = Math.min(next, schedule.nextTransition(nowMillis));
+        }
+        return next;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+}
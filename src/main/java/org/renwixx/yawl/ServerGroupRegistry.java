@@ -0,0 +1,118 @@
+package org.renwixx.yawl;
+
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import org.slf4j.Logger;
+
+import java.util.*;
+
+// Each server group from config.toml owns one bit, so an entry's groups fit into a single long.
+// Servers that belong to no group are open to every whitelisted player.
+public final class ServerGroupRegistry {
+    public static final int MAX_GROUPS = Long.SIZE;
+
+    private final Logger logger;
+    private final Map<String, Integer> bitByGroup = new LinkedHashMap<>();
+    private final List<String> groupNames = new ArrayList<>();
+    private final Map<String, Long> maskByServerName = new HashMap<>();
+    private volatile Map<RegisteredServer, Long> maskByServer = Collections.emptyMap();
+
+    public ServerGroupRegistry(Map<String, List<String>> groups, Logger logger) {
+        this.logger = logger;
+        groups.forEach((group, servers) -> {
+            OptionalInt bit = register(group);
+            if (bit.isEmpty()) return;
+            long mask = 1L << bit.getAsInt();
+            for (String serverName : servers) {
+                maskByServerName.merge(serverName.toLowerCase(Locale.ROOT), mask, (a, b) -> a | b);
+            }
+        });
+    }
+
+    public void bind(Collection<RegisteredServer> servers) {
+        Map<RegisteredServer, Long> resolved = new IdentityHashMap<>();
+        for (RegisteredServer server : servers) {
+            Long mask = maskByServerName.get(server.getServerInfo().getName().toLowerCase(Locale.ROOT));
+            if (mask != null) {
+                resolved.put(server, mask);
+            }
+        }
+        this.maskByServer = resolved;
+    }
+
+    public long requiredMask(RegisteredServer server) {
+        Long mask = maskByServer.get(server);
+        if (mask == null) {
+            if (maskByServerName.isEmpty()) return 0L;
+            mask = maskByServerName.get(server.getServerInfo().getName().toLowerCase(Locale.ROOT));
+        }
+        return mask == null ? 0L : mask;
+    }
+
+    public static boolean permits(long entryMask, long requiredMask) {
+        return requiredMask == 0L || (entryMask & requiredMask) != 0L;
+    }
+
+    public synchronized OptionalLong parseKnown(String csv) {
+        long mask = 0L;
+        for (String raw : csv.split(",")) {
+            String group = raw.trim().toLowerCase(Locale.ROOT);
+            if (group.isEmpty()) continue;
+            Integer bit = bitByGroup.get(group);
+            if (bit == null) return OptionalLong.empty();
+            mask |= 1L << bit;
+        }
+        return OptionalLong.of(mask);
+    }
+
+    public long parseStored(String csv) {
+        // Groups no longer declared in the config still get a bit, so they survive the next flush.
+        long mask = 0L;
+        for (String raw : csv.split(",")) {
+            String group = raw.trim();
+            if (group.isEmpty()) continue;
+            OptionalInt bit = register(group);
+            if (bit.isPresent()) {
+                mask |= 1L << bit.getAsInt();
+            }
+        }
+        return mask;
+    }
+
+    public synchronized String format(long mask) {
+        StringJoiner joiner = new StringJoiner(",");
+        for (int bit = 0; bit < groupNames.size(); bit++) {
+            if ((mask & (1L << bit)) != 0L) {
+                joiner.add(groupNames.get(bit));
+            }
+        }
+        return joiner.toString();
+    }
+
+    public synchronized Set<String> namesOf(long mask) {
+        Set<String> names = new LinkedHashSet<>();
+        for (int bit = 0; bit < groupNames.size(); bit++) {
+            if ((mask & (1L << bit)) != 0L) {
+                names.add(groupNames.get(bit));
+            }
+        }
+        return names;
+    }
+
+    public synchronized List<String> getGroupNames() {
+        return List.copyOf(groupNames);
+    }
+
+    private synchronized OptionalInt register(String group) {
+        String key = group.toLowerCase(Locale.ROOT);
+        Integer existing = bitByGroup.get(key);
+        if (existing != null) return OptionalInt.of(existing);
+        if (groupNames.size() >= MAX_GROUPS) {
+            logger.warn("Server group '{}' ignored: at most {} server groups are supported.", group, MAX_GROUPS);
+            return OptionalInt.empty();
+        }
+        int bit = groupNames.size();
+        bitByGroup.put(key, bit);
+        groupNames.add(key);
+        return OptionalInt.of(bit);
+    }
+}
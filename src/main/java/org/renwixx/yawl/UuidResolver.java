@@ -0,0 +1,291 @@
+package org.renwixx.yawl;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+// Resolves whitelisted names to account UUIDs through a bulk lookup endpoint. Names are queued and sent in
+// batches shortly after they arrive, with a bounded number of requests in flight. Results, including names
+// without an account, are cached with a TTL and kept in uuid-cache.txt across restarts.
+public final class UuidResolver {
+    private static final Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9_]{1,16}");
+    private static final long LINGER_MILLIS = 50;
+    private static final long SAVE_DELAY_MILLIS = 5_000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    // A null uuid means the endpoint did not know the name.
+    private record Cached(UUID uuid, long resolvedAtMillis) {}
+
+    private final Path cacheFile;
+    private final Logger logger;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+    // Lowercase name -> name as first requested, for names queued or in flight.
+    private final Map<String, String> pending = new ConcurrentHashMap<>();
+    private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+    private volatile Consumer<Map<String, UUID>> listener = resolved -> { };
+    private volatile boolean loaded;
+    private volatile boolean enabled;
+    private volatile URI endpoint;
+    private volatile int batchSize;
+    private volatile int maxInFlight;
+    private volatile long ttlMillis;
+    private volatile long negativeTtlMillis;
+
+    public UuidResolver(Path dataDirectory, Logger logger) {
+        this.cacheFile = dataDirectory.resolve("uuid-cache.txt");
+        this.logger = logger;
+    }
+
+    public void configure(PluginConfig config) {
+        this.endpoint = config.getUuidEndpoint();
+        this.batchSize = config.getUuidBatchSize();
+        this.maxInFlight = config.getUuidMaxConcurrentRequests();
+        this.ttlMillis = config.getUuidCacheTtl().toMillis();
+        this.negativeTtlMillis = config.getUuidNegativeCacheTtl().toMillis();
+        this.enabled = config.isUuidResolveEnabled() && endpoint != null;
+        if (enabled && !loaded) {
+            loaded = true;
+            load();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Called with name -> UUID for every batch that resolved at least one name, on the thread that got the answer.
+    public void setListener(Consumer<Map<String, UUID>> listener) {
+        this.listener = listener;
+    }
+
+    public Optional<UUID> getCached(String name) {
+        Cached cached = cache.get(name.toLowerCase(Locale.ROOT));
+        return cached != null && cached.uuid() != null && isFresh(cached, System.currentTimeMillis())
+                ? Optional.of(cached.uuid()) : Optional.empty();
+    }
+
+    // Seeds the cache from a login the proxy has already authenticated with Mojang.
+    public void remember(String name, UUID uuid) {
+        if (!enabled) return;
+        String key = name.toLowerCase(Locale.ROOT);
+        long now = System.currentTimeMillis();
+        Cached cached = cache.get(key);
+        if (cached != null && uuid.equals(cached.uuid()) && now - cached.resolvedAtMillis() < ttlMillis / 2) {
+            return;
+        }
+        cache.put(key, new Cached(uuid, now));
+        scheduleSave();
+    }
+
+    // Queues names for lookup. Names with a cached answer are reported to the listener straight away in one
+    // call; the rest are reported batch by batch as the endpoint answers. Patterns and names that cannot
+    // belong to an account are skipped.
+    public void request(Collection<String> names) {
+        if (!enabled) return;
+        long now = System.currentTimeMillis();
+        Map<String, UUID> known = new HashMap<>();
+        boolean queued = false;
+        for (String name : names) {
+            if (!VALID_NAME.matcher(name).matches()) continue;
+            String key = name.toLowerCase(Locale.ROOT);
+            Cached cached = cache.get(key);
+            if (cached != null && isFresh(cached, now)) {
+                if (cached.uuid() != null) known.put(name, cached.uuid());
+                continue;
+            }
+            if (pending.putIfAbsent(key, name) == null) {
+                queue.add(key);
+                queued = true;
+            }
+        }
+        if (!known.isEmpty()) {
+            notifyListener(known);
+        }
+        if (queued && drainScheduled.compareAndSet(false, true)) {
+            // Wait a moment so names added in a burst, e.g. an import, share requests.
+            CompletableFuture.delayedExecutor(LINGER_MILLIS, TimeUnit.MILLISECONDS).execute(() -> {
+                drainScheduled.set(false);
+                drain();
+            });
+        }
+    }
+
+    private void drain() {
+        while (!queue.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) return;
+            if (!inFlight.compareAndSet(current, current + 1)) continue;
+            List<String> batch = new ArrayList<>(batchSize);
+            String key;
+            while (batch.size() < batchSize && (key = queue.poll()) != null) {
+                batch.add(key);
+            }
+            if (batch.isEmpty()) {
+                inFlight.decrementAndGet();
+                return;
+            }
+            send(batch).whenComplete((ignored, error) -> {
+                inFlight.decrementAndGet();
+                drain();
+            });
+        }
+    }
+
+    private CompletableFuture<Void> send(List<String> keys) {
+        JsonArray body = new JsonArray();
+        keys.forEach(key -> body.add(pending.getOrDefault(key, key)));
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenAccept(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("HTTP " + response.statusCode());
+                    }
+                    complete(keys, parse(response.body()));
+                })
+                .exceptionally(error -> {
+                    // Not cached, so the names are asked for again on the next reload.
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    logger.warn("Failed to resolve {} names to UUIDs via {}: {}", keys.size(), endpoint, cause.toString());
+                    keys.forEach(pending::remove);
+                    return null;
+                });
+    }
+
+    private static Map<String, UUID> parse(String body) {
+        Map<String, UUID> found = new HashMap<>();
+        for (JsonElement element : JsonParser.parseString(body).getAsJsonArray()) {
+            JsonObject profile = element.getAsJsonObject();
+            if (profile.has("name") && profile.has("id")) {
+                found.put(profile.get("name").getAsString().toLowerCase(Locale.ROOT), parseUuid(profile.get("id").getAsString()));
+            }
+        }
+        return found;
+    }
+
+    // Mojang returns UUIDs without dashes.
+    private static UUID parseUuid(String id) {
+        if (id.length() == 32) {
+            return new UUID(Long.parseUnsignedLong(id.substring(0, 16), 16), Long.parseUnsignedLong(id.substring(16), 16));
+        }
+        return UUID.fromString(id);
+    }
+
+    private void complete(List<String> keys, Map<String, UUID> found) {
+        long now = System.currentTimeMillis();
+        Map<String, UUID> resolved = new HashMap<>();
+        for (String key : keys) {
+            UUID uuid = found.get(key);
+            cache.put(key, new Cached(uuid, now));
+            String name = pending.remove(key);
+            if (uuid != null && name != null) {
+                resolved.put(name, uuid);
+            }
+        }
+        scheduleSave();
+        if (!resolved.isEmpty()) {
+            notifyListener(resolved);
+        }
+    }
+
+    private void notifyListener(Map<String, UUID> resolved) {
+        try {
+            listener.accept(resolved);
+        } catch (RuntimeException e) {
+            logger.error("Failed to apply {} resolved UUIDs", resolved.size(), e);
+        }
+    }
+
+    private boolean isFresh(Cached cached, long nowMillis) {
+        return nowMillis - cached.resolvedAtMillis() < (cached.uuid() != null ? ttlMillis : negativeTtlMillis);
+    }
+
+    private void scheduleSave() {
+        if (saveScheduled.compareAndSet(false, true)) {
+            CompletableFuture.delayedExecutor(SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS).execute(() -> {
+                saveScheduled.set(false);
+                save();
+            });
+        }
+    }
+
+    // Lines are 'name|uuid|resolvedAtMillis'; the uuid is empty for names without an account.
+    private void load() {
+        if (!Files.exists(cacheFile)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            for (String line : Files.readAllLines(cacheFile)) {
+                String[] parts = line.split("\\|", -1);
+                if (parts.length != 3) continue;
+                try {
+                    Cached cached = new Cached(parts[1].isEmpty() ? null : UUID.fromString(parts[1]), Long.parseLong(parts[2]));
+                    if (isFresh(cached, now)) {
+                        cache.put(parts[0].toLowerCase(Locale.ROOT), cached);
+                    }
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Ignoring invalid line '{}' in {}", line, cacheFile.getFileName());
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read {}; names will be resolved again.", cacheFile.getFileName(), e);
+        }
+    }
+
+    public synchronized void save() {
+        if (!loaded) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<String> lines = new ArrayList<>(cache.size());
+        cache.forEach((name, cached) -> {
+            if (isFresh(cached, now)) {
+                lines.add(name + "|" + (cached.uuid() == null ? "" : cached.uuid()) + "|" + cached.resolvedAtMillis());
+            }
+        });
+        Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        try {
+            Files.write(tempFile, lines);
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Failed to save {}", cacheFile.getFileName(), e);
+        }
+    }
+}
@@ -5,12 +5,14 @@ import com.velocitypowered.api.event.player.ServerConnectedEvent;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ServerConnection;
 import com.velocitypowered.api.proxy.messages.MinecraftChannelIdentifier;
+import org.renwixx.yawl.jfr.PluginMessageBatchEvent;
 import org.renwixx.yawl.storage.WhitelistEntry;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -37,24 +39,54 @@ public class VelocityToBackendBridge {
     }
 
     public void sendWhitelistUpdate(Player player) {
-        player.getCurrentServer().ifPresent(serverConnection -> {
-            byte[] payload = createDataPayload(player);
-            serverConnection.getServer().sendPluginMessage(DATA_CHANNEL, payload);
-        });
+        send(player);
+    }
+
+    public void sendWhitelistUpdates(Collection<Player> players) {
+        PluginMessageBatchEvent event = new PluginMessageBatchEvent();
+        event.begin();
+        int messages = 0;
+        long bytes = 0;
+        for (Player player : players) {
+            int sent = send(player);
+            if (sent >= 0) {
+                messages++;
+                bytes += sent;
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.players = players.size();
+            event.messages = messages;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    // Returns the payload size, or -1 if the player is not connected to a backend server.
+    private int send(Player player) {
+        Optional<ServerConnection> connection = player.getCurrentServer();
+        if (connection.isEmpty()) {
+            return -1;
+        }
+        byte[] payload = createDataPayload(player);
+        connection.get().getServer().sendPluginMessage(DATA_CHANNEL, payload);
+        return payload.length;
     }
 
     private byte[] createDataPayload(Player player) {
         String durationString;
-        Optional<WhitelistEntry> entryOpt = plugin.getEntry(player.getUsername());
+        Optional<WhitelistEntry> entryOpt = plugin.getEffectiveEntry(player.getUsername());
 
         if (entryOpt.isPresent()) {
             WhitelistEntry entry = entryOpt.get();
-            if (entry.getExpiresAtMillis() == null) {
+            long now = System.currentTimeMillis();
+            if (!entry.hasExpiry()) {
                 durationString = localeManager.getMessageStringFor(player, "placeholder-permanent");
-            } else if (entry.isExpired()) {
+            } else if (entry.isExpired(now)) {
                 durationString = localeManager.getMessageStringFor(player, "placeholder-expired");
             } else {
-                long remainingMillis = entry.getExpiresAtMillis() - System.currentTimeMillis();
+                long remainingMillis = entry.expiresAtMillis() - now;
                 durationString = formatDuration(Duration.ofMillis(remainingMillis), player);
             }
         } else {
@@ -1,9 +1,13 @@
 package org.renwixx.yawl;
 
 import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.builder.RequiredArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import com.velocitypowered.api.command.BrigadierCommand;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.proxy.ConsoleCommandSource;
@@ -12,19 +16,36 @@ import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.renwixx.yawl.audit.AuditEvent;
+import org.renwixx.yawl.audit.AuditLog;
+import org.renwixx.yawl.util.AccessSchedule;
+import org.renwixx.yawl.util.AddressRangeTree;
 import org.renwixx.yawl.util.DurationParser;
+import org.renwixx.yawl.util.LookupCache;
+import org.renwixx.yawl.util.PatternMatcher;
 import org.slf4j.Logger;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
 
 public final class WhitelistCommand {
 
+    private static final String PERMANENT = "permanent";
+    private static final int DEFAULT_HISTORY_LIMIT = 10;
+    private static final String NO_SCHEDULE = "none";
+    private static final int EXPIRING_PAGE_SIZE = 10;
+    private static final int RECENT_PAGE_SIZE = 10;
+    private static final String RECENT_ADD_DURATION = "7d";
     private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss z").withZone(ZoneId.systemDefault());
 
     public static BrigadierCommand create(final Yawl plugin, final VelocityToBackendBridge bridge) {
@@ -35,45 +56,21 @@ public final class WhitelistCommand {
                 });
 
         var addCommand = LiteralArgumentBuilder.<CommandSource>literal("add")
-                .then(RequiredArgumentBuilder.<CommandSource, String>argument("player", StringArgumentType.word())
-                        .then(RequiredArgumentBuilder.<CommandSource, String>argument("duration", StringArgumentType.greedyString())
+                .then(RequiredArgumentBuilder.<CommandSource, String>argument("player", StringArgumentType.string())
+                        .then(RequiredArgumentBuilder.<CommandSource, String>argument("duration", StringArgumentType.word())
                                 .suggests((ctx, sb) -> {
                                     sb.suggest("7d");
                                     sb.suggest("30d");
                                     sb.suggest("1mo");
                                     sb.suggest("1y");
+                                    sb.suggest(PERMANENT);
                                     return sb.buildFuture();
                                 })
-                                .executes(context -> {
-                                    CommandSource source = context.getSource();
-                                    LocaleManager locale = plugin.getLocaleManager();
-                                    if (!source.hasPermission(Permissions.ADD)) {
-                                        source.sendMessage(locale.getMessageFor(source, "no-permission"));
-                                        return Command.SINGLE_SUCCESS;
-                                    }
-
-                                    String playerName = context.getArgument("player", String.class).trim();
-                                    String durationStr = context.getArgument("duration", String.class).trim();
-                                    var parsed = DurationParser.parse(durationStr);
-                                    if (parsed.isEmpty()) {
-                                        sendMessageToSource(source, locale.getMessageFor(source, "invalid-duration",
-                                                Placeholder.unparsed("duration", durationStr)), plugin);
-                                        return Command.SINGLE_SUCCESS;
-                                    }
-                                    Duration dur = parsed.get();
-                                    boolean added = plugin.addPlayer(playerName, dur);
-                                    if (added) {
-                                        String until = DATE_FMT.format(Instant.now().plus(dur));
-                                        sendMessageToSource(source, locale.getMessageFor(source, "player-added-temp",
-                                                Placeholder.unparsed("player", playerName),
-                                                Placeholder.unparsed("until", until)), plugin);
-                                        plugin.getServer().getPlayer(playerName).ifPresent(bridge::sendWhitelistUpdate);
-                                    } else {
-                                        sendMessageToSource(source, locale.getMessageFor(source, "player-already-exists",
-                                                Placeholder.unparsed("player", playerName)), plugin);
-                                    }
-                                    return Command.SINGLE_SUCCESS;
-                                }))
+                                .executes(context -> executeAdd(context, plugin, bridge, null))
+                                .then(RequiredArgumentBuilder.<CommandSource, String>argument("servers", StringArgumentType.greedyString())
+                                        .suggests((ctx, sb) -> suggestServerGroups(plugin, sb))
+                                        .executes(context -> executeAdd(context, plugin, bridge,
+                                                context.getArgument("servers", String.class)))))
                         .executes(context -> {
                             CommandSource source = context.getSource();
                             LocaleManager locale = plugin.getLocaleManager();
@@ -83,7 +80,7 @@ public final class WhitelistCommand {
                             }
 
                             String playerName = context.getArgument("player", String.class).trim();
-                            if (plugin.addPlayer(playerName)) {
+                            if (plugin.addPlayer(actorName(source), playerName)) {
                                 sendMessageToSource(source, locale.getMessageFor(source, "player-added",
                                                 Placeholder.unparsed("player", playerName)), plugin);
                                 plugin.getServer().getPlayer(playerName).ifPresent(bridge::sendWhitelistUpdate);
@@ -96,7 +93,7 @@ public final class WhitelistCommand {
                 );
 
         var removeCommand = LiteralArgumentBuilder.<CommandSource>literal("remove")
-                .then(RequiredArgumentBuilder.<CommandSource, String>argument("player", StringArgumentType.word())
+                .then(RequiredArgumentBuilder.<CommandSource, String>argument("player", StringArgumentType.string())
                         .suggests((context, suggestionBuilder) -> {
                             List<String> players = plugin.getWhitelistedPlayers();
                             String input = suggestionBuilder.getRemaining();
@@ -104,6 +101,7 @@ public final class WhitelistCommand {
                                     .filter(name -> plugin.getConfig().isCaseSensitive()
                                             ? name.startsWith(input)
                                             : name.toLowerCase().startsWith(input.toLowerCase()))
+                                    .map(WhitelistCommand::commandArgument)
                                     .forEach(suggestionBuilder::suggest);
                             return suggestionBuilder.buildFuture();
                         })
@@ -124,7 +122,7 @@ public final class WhitelistCommand {
                                 return Command.SINGLE_SUCCESS;
                             }
 
-                            if (plugin.removePlayer(playerName)) {
+                            if (plugin.removePlayer(actorName(source), playerName)) {
                                 sendMessageToSource(source, locale.getMessageFor(source, "player-removed",
                                         Placeholder.unparsed("player", playerName)), plugin);
                                 plugin.getServer().getPlayer(playerName).ifPresent(bridge::sendWhitelistUpdate);
@@ -137,7 +135,7 @@ public final class WhitelistCommand {
                 );
 
         var extendCommand = LiteralArgumentBuilder.<CommandSource>literal("extend")
-                .then(RequiredArgumentBuilder.<CommandSource, String>argument("player", StringArgumentType.word())
+                .then(RequiredArgumentBuilder.<CommandSource, String>argument("player", StringArgumentType.string())
                         .then(RequiredArgumentBuilder.<CommandSource, String>argument("duration", StringArgumentType.word())
                                 .suggests((ctx, sb) -> {
                                     sb.suggest("7d");
@@ -164,10 +162,12 @@ public final class WhitelistCommand {
                                     }
                                     Duration dur = parsed.get();
 
-                                    Optional<org.renwixx.yawl.storage.WhitelistEntry> existing = plugin.getEntry(playerName);
+                                    // Only a chosen mode restores an archived entry; the prompt just needs to know it exists.
+                                    Optional<org.renwixx.yawl.storage.WhitelistEntry> existing = plugin.getEntry(playerName)
+                                            .or(() -> plugin.getArchivedEntry(playerName));
 
                                     if (existing.isEmpty()) {
-                                        boolean added = plugin.addPlayer(playerName, dur);
+                                        boolean added = plugin.addPlayer(actorName(source), playerName, dur);
                                         if (added) {
                                             String until = DATE_FMT.format(Instant.now().plus(dur));
                                             sendMessageToSource(source, locale.getMessageFor(source, "player-added-temp",
@@ -185,7 +185,7 @@ public final class WhitelistCommand {
 
                                     if (expires == null) {
                                         long newMillis = Instant.now().plus(dur).toEpochMilli();
-                                        plugin.updatePlayerExpiry(playerName, newMillis);
+                                        plugin.updatePlayerExpiry(actorName(source), playerName, newMillis);
                                         String until = DATE_FMT.format(Instant.ofEpochMilli(newMillis));
                                         sendMessageToSource(source, locale.getMessageFor(source, "player-extended-replace",
                                                 Placeholder.unparsed("player", playerName),
@@ -196,7 +196,7 @@ public final class WhitelistCommand {
 
                                     if (!entry.isExpired()) {
                                         long newMillis = expires + dur.toMillis();
-                                        plugin.updatePlayerExpiry(playerName, newMillis);
+                                        plugin.updatePlayerExpiry(actorName(source), playerName, newMillis);
                                         String until = DATE_FMT.format(Instant.ofEpochMilli(newMillis));
                                         sendMessageToSource(source, locale.getMessageFor(source, "player-extended-add",
                                                 Placeholder.unparsed("player", playerName),
@@ -211,8 +211,8 @@ public final class WhitelistCommand {
                                             Placeholder.unparsed("player", playerName),
                                             Placeholder.unparsed("expired", expiredAt));
 
-                                    String cmdAdd = "/yawl extend " + playerName + " " + durationStr + " add";
-                                    String cmdReplace = "/yawl extend " + playerName + " " + durationStr + " replace";
+                                    String cmdAdd = "/yawl extend " + commandArgument(playerName) + " " + durationStr + " add";
+                                    String cmdReplace = "/yawl extend " + commandArgument(playerName) + " " + durationStr + " replace";
 
                                     Component btnAdd = locale.getMessageFor(source, "extend-button-add")
                                             .clickEvent(ClickEvent.runCommand(cmdAdd))
@@ -232,74 +232,11 @@ public final class WhitelistCommand {
                                             sb.suggest("replace");
                                             return sb.buildFuture();
                                         })
-                                        .executes(context -> {
-                                            CommandSource source = context.getSource();
-                                            LocaleManager locale = plugin.getLocaleManager();
-                                            if (!source.hasPermission(Permissions.EXTEND)) {
-                                                source.sendMessage(locale.getMessageFor(source, "no-permission"));
-                                                return Command.SINGLE_SUCCESS;
-                                            }
-
-                                            String playerName = context.getArgument("player", String.class).trim();
-                                            String durationStr = context.getArgument("duration", String.class).trim();
-                                            String mode = context.getArgument("mode", String.class).trim().toLowerCase();
-
-                                            var parsed = DurationParser.parse(durationStr);
-                                            if (parsed.isEmpty()) {
-                                                sendMessageToSource(source, locale.getMessageFor(source, "invalid-duration",
-                                                        Placeholder.unparsed("duration", durationStr)), plugin);
-                                                return Command.SINGLE_SUCCESS;
-                                            }
-                                            Duration dur = parsed.get();
-
-                                            Optional<org.renwixx.yawl.storage.WhitelistEntry> existing = plugin.getEntry(playerName);
-
-                                            if ("replace".equals(mode)) {
-                                                long newMillis = Instant.now().plus(dur).toEpochMilli();
-                                                if (existing.isPresent()) {
-                                                    plugin.updatePlayerExpiry(playerName, newMillis);
-                                                } else {
-                                                    plugin.addPlayer(playerName, dur);
-                                                }
-                                                String until = DATE_FMT.format(Instant.ofEpochMilli(newMillis));
-                                                sendMessageToSource(source, locale.getMessageFor(source, "player-extended-replace",
-                                                        Placeholder.unparsed("player", playerName),
-                                                        Placeholder.unparsed("until", until)), plugin);
-                                                plugin.getServer().getPlayer(playerName).ifPresent(bridge::sendWhitelistUpdate);
-                                                return Command.SINGLE_SUCCESS;
-                                            } else if ("add".equals(mode)) {
-                                                if (existing.isEmpty()) {
-                                                    boolean added = plugin.addPlayer(playerName, dur);
-                                                    if (added) {
-                                                        String until = DATE_FMT.format(Instant.now().plus(dur));
-                                                        sendMessageToSource(source, locale.getMessageFor(source, "player-added-temp",
-                                                                Placeholder.unparsed("player", playerName),
-                                                                Placeholder.unparsed("until", until)), plugin);
-                                                    } else {
-                                                        sendMessageToSource(source, locale.getMessageFor(source, "player-already-exists",
-                                                                Placeholder.unparsed("player", playerName)), plugin);
-                                                    }
-                                                    plugin.getServer().getPlayer(playerName).ifPresent(bridge::sendWhitelistUpdate);
-                                                    return Command.SINGLE_SUCCESS;
-                                                }
-                                                var entry = existing.get();
-                                                Long base = entry.getExpiresAtMillis();
-                                                if (base == null) {
-                                                    base = Instant.now().toEpochMilli();
-                                                }
-                                                long newMillis = base + dur.toMillis();
-                                                plugin.updatePlayerExpiry(playerName, newMillis);
-                                                String until = DATE_FMT.format(Instant.ofEpochMilli(newMillis));
-                                                sendMessageToSource(source, locale.getMessageFor(source, "player-extended-add",
-                                                        Placeholder.unparsed("player", playerName),
-                                                        Placeholder.unparsed("duration", durationStr),
-                                                        Placeholder.unparsed("until", until)), plugin);
-                                                plugin.getServer().getPlayer(playerName).ifPresent(bridge::sendWhitelistUpdate);
-                                                return Command.SINGLE_SUCCESS;
-                                            } else {
-                                                return Command.SINGLE_SUCCESS;
-                                            }
-                                        })))
+                                        .executes(context -> executeExtendMode(context, plugin, bridge, null))
+                                        .then(RequiredArgumentBuilder.<CommandSource, String>argument("servers", StringArgumentType.greedyString())
+                                                .suggests((ctx, sb) -> suggestServerGroups(plugin, sb))
+                                                .executes(context -> executeExtendMode(context, plugin, bridge,
+                                                        context.getArgument("servers", String.class))))))
                 );
 
         var listCommand = LiteralArgumentBuilder.<CommandSource>literal("list")
@@ -333,19 +270,635 @@ public final class WhitelistCommand {
                     }
                     plugin.reload();
                     sendMessageToSource(source, plugin.getLocaleManager().getMessageFor(source, "reload-success"), plugin);
-                    plugin.getServer().getAllPlayers().forEach(bridge::sendWhitelistUpdate);
+                    bridge.sendWhitelistUpdates(plugin.getServer().getAllPlayers());
                     return Command.SINGLE_SUCCESS;
                 });
 
+        var networkCommand = LiteralArgumentBuilder.<CommandSource>literal("network")
+                .then(LiteralArgumentBuilder.<CommandSource>literal("add")
+                        .then(RequiredArgumentBuilder.<CommandSource, String>argument("range", StringArgumentType.greedyString())
+                                .executes(context -> executeNetwork(context, plugin, true))))
+                .then(LiteralArgumentBuilder.<CommandSource>literal("remove")
+                        .then(RequiredArgumentBuilder.<CommandSource, String>argument("range", StringArgumentType.greedyString())
+                                .suggests((ctx, sb) -> {
+                                    plugin.getNetworks().forEach(sb::suggest);
+                                    return sb.buildFuture();
+                                })
+                                .executes(context -> executeNetwork(context, plugin, false))))
+                .then(LiteralArgumentBuilder.<CommandSource>literal("list")
+                        .executes(context -> {
+                            CommandSource source = context.getSource();
+                            LocaleManager locale = plugin.getLocaleManager();
+                            if (!source.hasPermission(Permissions.NETWORK)) {
+                                source.sendMessage(locale.getMessageFor(source, "no-permission"));
+                                return Command.SINGLE_SUCCESS;
+                            }
+
+                            List<String> ranges = plugin.getNetworks();
+                            if (ranges.isEmpty()) {
+                                sendMessageToSource(source, locale.getMessageFor(source, "network-list-empty"), plugin);
+                            } else {
+                                sendMessageToSource(source, locale.getMessageFor(source, "network-list-header",
+                                        Placeholder.unparsed("count", String.valueOf(ranges.size())),
+                                        Placeholder.unparsed("ranges", String.join(", ", ranges))), plugin);
+                            }
+                            return Command.SINGLE_SUCCESS;
+                        }));
+
+        var historyCommand = LiteralArgumentBuilder.<CommandSource>literal("history")
+                .then(RequiredArgumentBuilder.<CommandSource, String>argument("player", StringArgumentType.string())
+                        .executes(context -> executeHistory(context, plugin, DEFAULT_HISTORY_LIMIT))
+                        .then(RequiredArgumentBuilder.<CommandSource, Integer>argument("limit", IntegerArgumentType.integer(1, 100))
+                                .executes(context -> executeHistory(context, plugin,
+                                        context.getArgument("limit", Integer.class)))));
+
+        var scheduleCommand = LiteralArgumentBuilder.<CommandSource>literal("schedule")
+                .executes(context -> executeScheduleList(context, plugin))
+                .then(RequiredArgumentBuilder.<CommandSource, String>argument("player", StringArgumentType.string())
+                        .then(RequiredArgumentBuilder.<CommandSource, String>argument("schedule", StringArgumentType.word())
+                                .suggests((ctx, sb) -> {
+                                    plugin.getSchedules().names().forEach(sb::suggest);
+                                    sb.suggest(NO_SCHEDULE);
+                                    return sb.buildFuture();
+                                })
+                                .executes(context -> executeSchedule(context, plugin, bridge))));
+
+        var expiringCommand = LiteralArgumentBuilder.<CommandSource>literal("expiring")
+                .then(RequiredArgumentBuilder.<CommandSource, String>argument("duration", StringArgumentType.word())
+                        .suggests((ctx, sb) -> {
+                            sb.suggest("1d");
+                            sb.suggest("7d");
+                            sb.suggest("30d");
+                            return sb.buildFuture();
+                        })
+                        .executes(context -> executeExpiring(context, plugin, 1))
+                        .then(RequiredArgumentBuilder.<CommandSource, Integer>argument("page", IntegerArgumentType.integer(1))
+                                .executes(context -> executeExpiring(context, plugin,
+                                        context.getArgument("page", Integer.class))))
+                        .then(LiteralArgumentBuilder.<CommandSource>literal("extend")
+                                .then(RequiredArgumentBuilder.<CommandSource, String>argument("by", StringArgumentType.word())
+                                        .suggests((ctx, sb) -> {
+                                            sb.suggest("7d");
+                                            sb.suggest("30d");
+                                            sb.suggest("1mo");
+                                            return sb.buildFuture();
+                                        })
+                                        .executes(context -> executeExpiringExtend(context, plugin, bridge)))));
+
+        var cacheCommand = LiteralArgumentBuilder.<CommandSource>literal("cache")
+                .then(LiteralArgumentBuilder.<CommandSource>literal("clear")
+                        .executes(context -> {
+                            CommandSource source = context.getSource();
+                            LocaleManager locale = plugin.getLocaleManager();
+                            if (!source.hasPermission(Permissions.CACHE)) {
+                                source.sendMessage(locale.getMessageFor(source, "no-permission"));
+                                return Command.SINGLE_SUCCESS;
+                            }
+
+                            int cleared = plugin.getBypassCache().clear() + plugin.getArchiveLookups().invalidateAll();
+                            sendMessageToSource(source, locale.getMessageFor(source, "cache-cleared",
+                                    Placeholder.unparsed("count", String.valueOf(cleared))), plugin);
+                            return Command.SINGLE_SUCCESS;
+                        }))
+                .then(LiteralArgumentBuilder.<CommandSource>literal("stats")
+                        .executes(context -> {
+                            CommandSource source = context.getSource();
+                            LocaleManager locale = plugin.getLocaleManager();
+                            if (!source.hasPermission(Permissions.CACHE)) {
+                                source.sendMessage(locale.getMessageFor(source, "no-permission"));
+                                return Command.SINGLE_SUCCESS;
+                            }
+
+                            LookupCache.Stats stats = plugin.getArchiveLookups().stats();
+                            sendMessageToSource(source, locale.getMessageFor(source, "cache-stats",
+                                    Placeholder.unparsed("hit-ratio", String.format(Locale.ROOT, "%.1f%%", stats.hitRatio() * 100)),
+                                    Placeholder.unparsed("hits", String.valueOf(stats.hits())),
+                                    Placeholder.unparsed("negative-hits", String.valueOf(stats.negativeHits())),
+                                    Placeholder.unparsed("misses", String.valueOf(stats.misses())),
+                                    Placeholder.unparsed("size", String.valueOf(stats.size())),
+                                    Placeholder.unparsed("negative-size", String.valueOf(stats.negativeSize())),
+                                    Placeholder.unparsed("evictions", String.valueOf(stats.evictions())),
+                                    Placeholder.unparsed("bypass", String.valueOf(plugin.getBypassCache().size()))), plugin);
+                            return Command.SINGLE_SUCCESS;
+                        }));
+
+        var profileCommand = LiteralArgumentBuilder.<CommandSource>literal("profile")
+                .executes(context -> executeProfileList(context, plugin))
+                .then(LiteralArgumentBuilder.<CommandSource>literal("list")
+                        .executes(context -> executeProfileList(context, plugin)))
+                .then(LiteralArgumentBuilder.<CommandSource>literal("switch")
+                        .then(RequiredArgumentBuilder.<CommandSource, String>argument("profile", StringArgumentType.word())
+                                .suggests((ctx, sb) -> {
+                                    plugin.getProfileNames().forEach(sb::suggest);
+                                    return sb.buildFuture();
+                                })
+                                .executes(context -> executeProfileSwitch(context, plugin))));
+
+        var recentCommand = LiteralArgumentBuilder.<CommandSource>literal("recent")
+                .executes(context -> executeRecent(context, plugin, 1))
+                .then(RequiredArgumentBuilder.<CommandSource, Integer>argument("page", IntegerArgumentType.integer(1))
+                        .executes(context -> executeRecent(context, plugin, context.getArgument("page", Integer.class))));
+
         builder.then(addCommand)
                 .then(extendCommand)
                 .then(removeCommand)
                 .then(listCommand)
-                .then(reloadCommand);
+                .then(reloadCommand)
+                .then(networkCommand)
+                .then(historyCommand)
+                .then(scheduleCommand)
+                .then(expiringCommand)
+                .then(cacheCommand)
+                .then(profileCommand)
+                .then(recentCommand);
 
         return new BrigadierCommand(builder);
     }
 
+    private static int executeAdd(CommandContext<CommandSource> context, Yawl plugin,
+                                  VelocityToBackendBridge bridge, String servers) {
+        CommandSource source = context.getSource();
+        LocaleManager locale = plugin.getLocaleManager();
+        if (!source.hasPermission(Permissions.ADD)) {
+            source.sendMessage(locale.getMessageFor(source, "no-permission"));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        String playerName = context.getArgument("player", String.class).trim();
+        String durationStr = context.getArgument("duration", String.class).trim();
+        Duration dur = null;
+        if (!PERMANENT.equalsIgnoreCase(durationStr)) {
+            var parsed = DurationParser.parse(durationStr);
+            if (parsed.isEmpty()) {
+                sendMessageToSource(source, locale.getMessageFor(source, "invalid-duration",
+                        Placeholder.unparsed("duration", durationStr)), plugin);
+                return Command.SINGLE_SUCCESS;
+            }
+            dur = parsed.get();
+        }
+        OptionalLong scope = parseServers(source, servers, plugin);
+        if (scope.isEmpty()) {
+            return Command.SINGLE_SUCCESS;
+        }
+
+        boolean added = plugin.addPlayer(actorName(source), playerName, dur, scope.getAsLong());
+        if (added && dur == null) {
+            sendMessageToSource(source, locale.getMessageFor(source, "player-added",
+                    Placeholder.unparsed("player", playerName)), plugin);
+        } else if (added) {
+            String until = DATE_FMT.format(Instant.now().plus(dur));
+            sendMessageToSource(source, locale.getMessageFor(source, "player-added-temp",
+                    Placeholder.unparsed("player", playerName),
+                    Placeholder.unparsed("until", until)), plugin);
+        } else {
+            sendMessageToSource(source, locale.getMessageFor(source, "player-already-exists",
+                    Placeholder.unparsed("player", playerName)), plugin);
+        }
+        if (servers != null) {
+            sendMessageToSource(source, locale.getMessageFor(source, "player-servers-set",
+                    Placeholder.unparsed("player", playerName),
+                    Placeholder.unparsed("servers", plugin.getServerGroups().format(scope.getAsLong()))), plugin);
+        }
+        plugin.getServer().getPlayer(playerName).ifPresent(bridge::sendWhitelistUpdate);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int executeExtendMode(CommandContext<CommandSource> context, Yawl plugin,
+                                         VelocityToBackendBridge bridge, String servers) {
+        CommandSource source = context.getSource();
+        LocaleManager locale = plugin.getLocaleManager();
+        if (!source.hasPermission(Permissions.EXTEND)) {
+            source.sendMessage(locale.getMessageFor(source, "no-permission"));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        String playerName = context.getArgument("player", String.class).trim();
+        String durationStr = context.getArgument("duration", String.class).trim();
+        String mode = context.getArgument("mode", String.class).trim().toLowerCase();
+
+        var parsed = DurationParser.parse(durationStr);
+        if (parsed.isEmpty()) {
+            sendMessageToSource(source, locale.getMessageFor(source, "invalid-duration",
+                    Placeholder.unparsed("duration", durationStr)), plugin);
+            return Command.SINGLE_SUCCESS;
+        }
+        Duration dur = parsed.get();
+        OptionalLong scope = parseServers(source, servers, plugin);
+        if (scope.isEmpty()) {
+            return Command.SINGLE_SUCCESS;
+        }
+
+        Optional<org.renwixx.yawl.storage.WhitelistEntry> existing = plugin.getEntry(playerName)
+                .or(() -> plugin.restoreArchived(actorName(source), playerName));
+
+        if ("replace".equals(mode)) {
+            long newMillis = Instant.now().plus(dur).toEpochMilli();
+            if (existing.isPresent()) {
+                plugin.updatePlayerExpiry(actorName(source), playerName, newMillis);
+            } else {
+                plugin.addPlayer(actorName(source), playerName, dur);
+            }
+            String until = DATE_FMT.format(Instant.ofEpochMilli(newMillis));
+            sendMessageToSource(source, locale.getMessageFor(source, "player-extended-replace",
+                    Placeholder.unparsed("player", playerName),
+                    Placeholder.unparsed("until", until)), plugin);
+            applyServers(source, plugin, playerName, servers, scope.getAsLong());
+            plugin.getServer().getPlayer(playerName).ifPresent(bridge::sendWhitelistUpdate);
+            return Command.SINGLE_SUCCESS;
+        } else if ("add".equals(mode)) {
+            if (existing.isEmpty()) {
+                boolean added = plugin.addPlayer(actorName(source), playerName, dur);
+                if (added) {
+                    String until = DATE_FMT.format(Instant.now().plus(dur));
+                    sendMessageToSource(source, locale.getMessageFor(source, "player-added-temp",
+                            Placeholder.unparsed("player", playerName),
+                            Placeholder.unparsed("until", until)), plugin);
+                } else {
+                    sendMessageToSource(source, locale.getMessageFor(source, "player-already-exists",
+                            Placeholder.unparsed("player", playerName)), plugin);
+                }
+                applyServers(source, plugin, playerName, servers, scope.getAsLong());
+                plugin.getServer().getPlayer(playerName).ifPresent(bridge::sendWhitelistUpdate);
+                return Command.SINGLE_SUCCESS;
+            }
+            var entry = existing.get();
+            Long base = entry.getExpiresAtMillis();
+            if (base == null) {
+                base = Instant.now().toEpochMilli();
+            }
+            long newMillis = base + dur.toMillis();
+            plugin.updatePlayerExpiry(actorName(source), playerName, newMillis);
+            String until = DATE_FMT.format(Instant.ofEpochMilli(newMillis));
+            sendMessageToSource(source, locale.getMessageFor(source, "player-extended-add",
+                    Placeholder.unparsed("player", playerName),
+                    Placeholder.unparsed("duration", durationStr),
+                    Placeholder.unparsed("until", until)), plugin);
+            applyServers(source, plugin, playerName, servers, scope.getAsLong());
+            plugin.getServer().getPlayer(playerName).ifPresent(bridge::sendWhitelistUpdate);
+            return Command.SINGLE_SUCCESS;
+        } else {
+            return Command.SINGLE_SUCCESS;
+        }
+    }
+
+    private static int executeNetwork(CommandContext<CommandSource> context, Yawl plugin, boolean add) {
+        CommandSource source = context.getSource();
+        LocaleManager locale = plugin.getLocaleManager();
+        if (!source.hasPermission(Permissions.NETWORK)) {
+            source.sendMessage(locale.getMessageFor(source, "no-permission"));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        String input = context.getArgument("range", String.class).trim();
+        Optional<AddressRangeTree.Range> range = AddressRangeTree.Range.parse(input);
+        if (range.isEmpty()) {
+            sendMessageToSource(source, locale.getMessageFor(source, "network-invalid",
+                    Placeholder.unparsed("range", input)), plugin);
+            return Command.SINGLE_SUCCESS;
+        }
+
+        String text = range.get().text();
+        if (add) {
+            String key = plugin.addNetwork(actorName(source), range.get()) ? "network-added" : "network-already-exists";
+            sendMessageToSource(source, locale.getMessageFor(source, key, Placeholder.unparsed("range", text)), plugin);
+        } else {
+            String key = plugin.removeNetwork(actorName(source), range.get()) ? "network-removed" : "network-not-found";
+            sendMessageToSource(source, locale.getMessageFor(source, key, Placeholder.unparsed("range", text)), plugin);
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int executeHistory(CommandContext<CommandSource> context, Yawl plugin, int limit) {
+        CommandSource source = context.getSource();
+        LocaleManager locale = plugin.getLocaleManager();
+        if (!source.hasPermission(Permissions.HISTORY)) {
+            source.sendMessage(locale.getMessageFor(source, "no-permission"));
+            return Command.SINGLE_SUCCESS;
+        }
+        AuditLog auditLog = plugin.getAuditLog();
+        if (!auditLog.isEnabled()) {
+            sendMessageToSource(source, locale.getMessageFor(source, "history-disabled"), plugin);
+            return Command.SINGLE_SUCCESS;
+        }
+
+        String playerName = context.getArgument("player", String.class).trim();
+        // Older segments may be gzipped, so read them off the command thread.
+        plugin.getServer().getScheduler().buildTask(plugin, () -> {
+            List<AuditEvent> events;
+            try {
+                events = auditLog.history(playerName, limit, plugin.getConfig().isCaseSensitive());
+            } catch (IOException e) {
+                plugin.getLogger().error("Failed to read the audit log for {}", playerName, e);
+                return;
+            }
+            if (events.isEmpty()) {
+                sendMessageToSource(source, locale.getMessageFor(source, "history-empty",
+                        Placeholder.unparsed("player", playerName)), plugin);
+                return;
+            }
+            sendMessageToSource(source, locale.getMessageFor(source, "history-header",
+                    Placeholder.unparsed("player", playerName),
+                    Placeholder.unparsed("count", String.valueOf(events.size()))), plugin);
+            for (AuditEvent event : events) {
+                sendMessageToSource(source, locale.getMessageFor(source, "history-entry",
+                        Placeholder.unparsed("time", DATE_FMT.format(Instant.ofEpochMilli(event.timestamp()))),
+                        Placeholder.unparsed("actor", event.actor()),
+                        Placeholder.unparsed("action", event.action().name().toLowerCase(Locale.ROOT).replace('_', '-')),
+                        Placeholder.unparsed("details", describe(event))), plugin);
+            }
+        }).schedule();
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int executeSchedule(CommandContext<CommandSource> context, Yawl plugin, VelocityToBackendBridge bridge) {
+        CommandSource source = context.getSource();
+        LocaleManager locale = plugin.getLocaleManager();
+        if (!source.hasPermission(Permissions.SCHEDULE)) {
+            source.sendMessage(locale.getMessageFor(source, "no-permission"));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        String playerName = context.getArgument("player", String.class).trim();
+        String scheduleName = context.getArgument("schedule", String.class).trim();
+        AccessSchedule schedule = null;
+        if (!NO_SCHEDULE.equalsIgnoreCase(scheduleName)) {
+            Optional<AccessSchedule> known = plugin.getSchedules().get(scheduleName);
+            if (known.isEmpty()) {
+                sendMessageToSource(source, locale.getMessageFor(source, "unknown-schedule",
+                        Placeholder.unparsed("schedule", scheduleName),
+                        Placeholder.unparsed("schedules", String.join(", ", plugin.getSchedules().names()))), plugin);
+                return Command.SINGLE_SUCCESS;
+            }
+            schedule = known.get();
+        }
+
+        if (!plugin.updatePlayerSchedule(actorName(source), playerName, schedule)) {
+            sendMessageToSource(source, locale.getMessageFor(source, "player-not-found",
+                    Placeholder.unparsed("player", playerName)), plugin);
+            return Command.SINGLE_SUCCESS;
+        }
+        if (schedule == null) {
+            sendMessageToSource(source, locale.getMessageFor(source, "schedule-cleared",
+                    Placeholder.unparsed("player", playerName)), plugin);
+        } else {
+            sendMessageToSource(source, locale.getMessageFor(source, "schedule-set",
+                    Placeholder.unparsed("player", playerName),
+                    Placeholder.unparsed("schedule", schedule.name())), plugin);
+        }
+        plugin.getServer().getPlayer(playerName).ifPresent(bridge::sendWhitelistUpdate);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int executeScheduleList(CommandContext<CommandSource> context, Yawl plugin) {
+        CommandSource source = context.getSource();
+        LocaleManager locale = plugin.getLocaleManager();
+        if (!source.hasPermission(Permissions.SCHEDULE)) {
+            source.sendMessage(locale.getMessageFor(source, "no-permission"));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        ScheduleRegistry schedules = plugin.getSchedules();
+        if (schedules.all().isEmpty()) {
+            sendMessageToSource(source, locale.getMessageFor(source, "schedule-list-empty"), plugin);
+            return Command.SINGLE_SUCCESS;
+        }
+        sendMessageToSource(source, locale.getMessageFor(source, "schedule-list-header",
+                Placeholder.unparsed("count", String.valueOf(schedules.all().size()))), plugin);
+        long now = System.currentTimeMillis();
+        DateTimeFormatter format = DATE_FMT.withZone(schedules.getZone());
+        for (AccessSchedule schedule : schedules.all()) {
+            long next = schedule.nextTransition(now);
+            sendMessageToSource(source, locale.getMessageFor(source, "schedule-list-entry",
+                    Placeholder.unparsed("schedule", schedule.name()),
+                    Placeholder.component("state", locale.getMessageFor(source,
+                            schedule.isOpen(now) ? "schedule-state-open" : "schedule-state-closed")),
+                    Placeholder.unparsed("until", next == Long.MAX_VALUE ? "-" : format.format(Instant.ofEpochMilli(next)))), plugin);
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int executeRecent(CommandContext<CommandSource> context, Yawl plugin, int page) {
+        CommandSource source = context.getSource();
+        LocaleManager locale = plugin.getLocaleManager();
+        if (!source.hasPermission(Permissions.RECENT)) {
+            source.sendMessage(locale.getMessageFor(source, "no-permission"));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        // Names whitelisted since they were denied are left out.
+        List<RecentDenials.Denial> denials = plugin.getRecentDenials().snapshot().stream()
+                .filter(denial -> !plugin.isWhitelisted(denial.name()))
+                .toList();
+        if (denials.isEmpty()) {
+            sendMessageToSource(source, locale.getMessageFor(source, "recent-empty"), plugin);
+            return Command.SINGLE_SUCCESS;
+        }
+        int pages = (denials.size() + RECENT_PAGE_SIZE - 1) / RECENT_PAGE_SIZE;
+        int shown = Math.min(page, pages);
+        sendMessageToSource(source, locale.getMessageFor(source, "recent-header",
+                Placeholder.unparsed("count", String.valueOf(denials.size())),
+                Placeholder.unparsed("page", String.valueOf(shown)),
+                Placeholder.unparsed("pages", String.valueOf(pages))), plugin);
+        for (RecentDenials.Denial denial : denials.subList((shown - 1) * RECENT_PAGE_SIZE, Math.min(denials.size(), shown * RECENT_PAGE_SIZE))) {
+            Component entry = locale.getMessageFor(source, "recent-entry",
+                    Placeholder.unparsed("player", denial.name()),
+                    Placeholder.unparsed("count", String.valueOf(denial.count())),
+                    Placeholder.unparsed("time", DATE_FMT.format(Instant.ofEpochMilli(denial.lastSeenMillis()))),
+                    Placeholder.unparsed("address", denial.address() == null ? "-" : denial.address()),
+                    Placeholder.unparsed("uuid", denial.uuid() == null ? "-" : denial.uuid().toString()));
+            Component add = locale.getMessageFor(source, "recent-add-button")
+                    .clickEvent(ClickEvent.runCommand("/yawl add " + denial.name()))
+                    .hoverEvent(HoverEvent.showText(locale.getMessageFor(source, "recent-add-button-hover",
+                            Placeholder.unparsed("player", denial.name()))));
+            Component addTimed = locale.getMessageFor(source, "recent-add-timed-button",
+                            Placeholder.unparsed("duration", RECENT_ADD_DURATION))
+                    .clickEvent(ClickEvent.runCommand("/yawl add " + denial.name() + " " + RECENT_ADD_DURATION))
+                    .hoverEvent(HoverEvent.showText(locale.getMessageFor(source, "recent-add-timed-button-hover",
+                            Placeholder.unparsed("player", denial.name()),
+                            Placeholder.unparsed("duration", RECENT_ADD_DURATION))));
+            sendMessageToSource(source, entry.append(Component.space()).append(add).append(Component.space()).append(addTimed), plugin);
+        }
+        if (shown < pages) {
+            sendMessageToSource(source, locale.getMessageFor(source, "recent-next-page")
+                    .clickEvent(ClickEvent.runCommand("/yawl recent " + (shown + 1))), plugin);
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int executeProfileList(CommandContext<CommandSource> context, Yawl plugin) {
+        CommandSource source = context.getSource();
+        LocaleManager locale = plugin.getLocaleManager();
+        if (!source.hasPermission(Permissions.PROFILE)) {
+            source.sendMessage(locale.getMessageFor(source, "no-permission"));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        List<String> profiles = plugin.getProfileNames();
+        sendMessageToSource(source, locale.getMessageFor(source, "profile-list",
+                Placeholder.unparsed("active", plugin.getActiveProfile().name()),
+                Placeholder.unparsed("count", String.valueOf(profiles.size())),
+                Placeholder.unparsed("profiles", String.join(", ", profiles))), plugin);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int executeProfileSwitch(CommandContext<CommandSource> context, Yawl plugin) {
+        CommandSource source = context.getSource();
+        LocaleManager locale = plugin.getLocaleManager();
+        if (!source.hasPermission(Permissions.PROFILE)) {
+            source.sendMessage(locale.getMessageFor(source, "no-permission"));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        String name = context.getArgument("profile", String.class).trim().toLowerCase(Locale.ROOT);
+        if (plugin.getActiveProfile().name().equals(name)) {
+            sendMessageToSource(source, locale.getMessageFor(source, "profile-already-active",
+                    Placeholder.unparsed("profile", name)), plugin);
+            return Command.SINGLE_SUCCESS;
+        }
+        if (!plugin.switchProfile(actorName(source), name)) {
+            sendMessageToSource(source, locale.getMessageFor(source, "unknown-profile",
+                    Placeholder.unparsed("profile", name),
+                    Placeholder.unparsed("profiles", String.join(", ", plugin.getProfileNames()))), plugin);
+            return Command.SINGLE_SUCCESS;
+        }
+        sendMessageToSource(source, locale.getMessageFor(source, "profile-switched",
+                Placeholder.unparsed("profile", name),
+                Placeholder.unparsed("count", String.valueOf(plugin.getActiveProfile().index().size()))), plugin);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int executeExpiring(CommandContext<CommandSource> context, Yawl plugin, int page) {
+        CommandSource source = context.getSource();
+        LocaleManager locale = plugin.getLocaleManager();
+        if (!source.hasPermission(Permissions.EXPIRING)) {
+            source.sendMessage(locale.getMessageFor(source, "no-permission"));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        String durationStr = context.getArgument("duration", String.class).trim();
+        var parsed = DurationParser.parse(durationStr);
+        if (parsed.isEmpty()) {
+            sendMessageToSource(source, locale.getMessageFor(source, "invalid-duration",
+                    Placeholder.unparsed("duration", durationStr)), plugin);
+            return Command.SINGLE_SUCCESS;
+        }
+
+        NavigableSet<org.renwixx.yawl.storage.WhitelistEntry> expiring = plugin.getExpiring(parsed.get());
+        int total = expiring.size();
+        if (total == 0) {
+            sendMessageToSource(source, locale.getMessageFor(source, "expiring-empty",
+                    Placeholder.unparsed("duration", durationStr)), plugin);
+            return Command.SINGLE_SUCCESS;
+        }
+        int pages = (total + EXPIRING_PAGE_SIZE - 1) / EXPIRING_PAGE_SIZE;
+        int shown = Math.min(page, pages);
+        sendMessageToSource(source, locale.getMessageFor(source, "expiring-header",
+                Placeholder.unparsed("duration", durationStr),
+                Placeholder.unparsed("count", String.valueOf(total)),
+                Placeholder.unparsed("page", String.valueOf(shown)),
+                Placeholder.unparsed("pages", String.valueOf(pages))), plugin);
+        expiring.stream()
+                .skip((long) (shown - 1) * EXPIRING_PAGE_SIZE)
+                .limit(EXPIRING_PAGE_SIZE)
+                .forEach(entry -> sendMessageToSource(source, locale.getMessageFor(source, "expiring-entry",
+                        Placeholder.unparsed("player", entry.getOriginalName()),
+                        Placeholder.unparsed("until", DATE_FMT.format(Instant.ofEpochMilli(entry.expiresAtMillis())))), plugin));
+
+        Component footer = locale.getMessageFor(source, "expiring-extend-button")
+                .clickEvent(ClickEvent.suggestCommand("/yawl expiring " + durationStr + " extend "))
+                .hoverEvent(HoverEvent.showText(locale.getMessageFor(source, "expiring-extend-button-hover",
+                        Placeholder.unparsed("count", String.valueOf(total)))));
+        if (shown < pages) {
+            Component next = locale.getMessageFor(source, "expiring-next-page")
+                    .clickEvent(ClickEvent.runCommand("/yawl expiring " + durationStr + " " + (shown + 1)));
+            footer = next.append(Component.space()).append(footer);
+        }
+        sendMessageToSource(source, footer, plugin);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int executeExpiringExtend(CommandContext<CommandSource> context, Yawl plugin, VelocityToBackendBridge bridge) {
+        CommandSource source = context.getSource();
+        LocaleManager locale = plugin.getLocaleManager();
+        if (!source.hasPermission(Permissions.EXPIRING) || !source.hasPermission(Permissions.EXTEND)) {
+            source.sendMessage(locale.getMessageFor(source, "no-permission"));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        String durationStr = context.getArgument("duration", String.class).trim();
+        String byStr = context.getArgument("by", String.class).trim();
+        var within = DurationParser.parse(durationStr);
+        var by = DurationParser.parse(byStr);
+        if (within.isEmpty() || by.isEmpty()) {
+            sendMessageToSource(source, locale.getMessageFor(source, "invalid-duration",
+                    Placeholder.unparsed("duration", within.isEmpty() ? durationStr : byStr)), plugin);
+            return Command.SINGLE_SUCCESS;
+        }
+
+        List<org.renwixx.yawl.storage.WhitelistEntry> extended = plugin.extendPlayers(actorName(source),
+                plugin.getExpiring(within.get()), by.get());
+        sendMessageToSource(source, locale.getMessageFor(source, "expiring-extended",
+                Placeholder.unparsed("count", String.valueOf(extended.size())),
+                Placeholder.unparsed("duration", durationStr),
+                Placeholder.unparsed("by", byStr)), plugin);
+        extended.forEach(entry -> plugin.getServer().getPlayer(entry.getOriginalName()).ifPresent(bridge::sendWhitelistUpdate));
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static String describe(AuditEvent event) {
+        StringJoiner joiner = new StringJoiner(" ");
+        if (event.oldExpiry() != AuditEvent.NONE || event.newExpiry() != AuditEvent.NONE) {
+            joiner.add(formatExpiry(event.oldExpiry()) + " -> " + formatExpiry(event.newExpiry()));
+        }
+        if (!event.detail().isEmpty()) {
+            joiner.add(event.detail());
+        }
+        return joiner.toString();
+    }
+
+    private static String formatExpiry(long millis) {
+        if (millis == AuditEvent.NONE) return "-";
+        if (millis == AuditEvent.PERMANENT) return PERMANENT;
+        return DATE_FMT.format(Instant.ofEpochMilli(millis));
+    }
+
+    private static String actorName(CommandSource source) {
+        return source instanceof com.velocitypowered.api.proxy.Player player ? player.getUsername() : AuditLog.CONSOLE;
+    }
+
+    private static OptionalLong parseServers(CommandSource source, String servers, Yawl plugin) {
+        if (servers == null) {
+            return OptionalLong.of(0L);
+        }
+        ServerGroupRegistry registry = plugin.getServerGroups();
+        OptionalLong mask = registry.parseKnown(servers);
+        if (mask.isEmpty()) {
+            sendMessageToSource(source, plugin.getLocaleManager().getMessageFor(source, "unknown-server-group",
+                    Placeholder.unparsed("servers", servers.trim()),
+                    Placeholder.unparsed("groups", String.join(", ", registry.getGroupNames()))), plugin);
+        }
+        return mask;
+    }
+
+    private static void applyServers(CommandSource source, Yawl plugin, String playerName, String servers, long mask) {
+        if (servers == null || !plugin.updatePlayerServers(actorName(source), playerName, mask)) {
+            return;
+        }
+        sendMessageToSource(source, plugin.getLocaleManager().getMessageFor(source, "player-servers-set",
+                Placeholder.unparsed("player", playerName),
+                Placeholder.unparsed("servers", plugin.getServerGroups().format(mask))), plugin);
+    }
+
+    // Wildcard entries contain characters Brigadier only accepts inside quotes.
+    private static String commandArgument(String name) {
+        return PatternMatcher.isPattern(name) ? "\"" + name + "\"" : name;
+    }
+
+    private static CompletableFuture<Suggestions> suggestServerGroups(Yawl plugin, SuggestionsBuilder builder) {
+        plugin.getServerGroups().getGroupNames().forEach(builder::suggest);
+        return builder.buildFuture();
+    }
+
     private static void sendMessageToSource(CommandSource source, Component message, Yawl plugin) {
         if (source instanceof ConsoleCommandSource) {
             Logger logger = plugin.getLogger();
@@ -0,0 +1,47 @@
+package org.renwixx.yawl;
+
+import org.renwixx.yawl.storage.FileWhitelistStorage;
+import org.renwixx.yawl.storage.WhitelistIndex;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+// A named whitelist together with the file it is saved to. The pair is swapped as one reference, so a
+// flush always writes a profile's entries to that profile's own file, even while another one is activated.
+public final class WhitelistProfile {
+    public static final String DEFAULT = "default";
+    private static final Pattern VALID_NAME = Pattern.compile("[a-z0-9_-]{1,32}");
+
+    private final String name;
+    private final FileWhitelistStorage storage;
+    private final WhitelistIndex index;
+
+    public WhitelistProfile(String name, FileWhitelistStorage storage, WhitelistIndex index) {
+        this.name = name;
+        this.storage = storage;
+        this.index = index;
+    }
+
+    public static boolean isValidName(String name) {
+        return VALID_NAME.matcher(name).matches();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    // Null only for the empty placeholder used before the first load.
+    public FileWhitelistStorage storage() {
+        return storage;
+    }
+
+    public WhitelistIndex index() {
+        return index;
+    }
+
+    public synchronized void flush() throws IOException {
+        if (storage != null) {
+            storage.flush(index.entries());
+        }
+    }
+}
@@ -10,18 +10,42 @@ import com.velocitypowered.api.plugin.Plugin;
 import com.velocitypowered.api.plugin.annotation.DataDirectory;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.proxy.server.RegisteredServer;
 import com.velocitypowered.api.scheduler.ScheduledTask;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.renwixx.yawl.api.YawlProvider;
+import org.renwixx.yawl.api.event.WhitelistChange;
+import org.renwixx.yawl.api.event.WhitelistChangeEvent;
+import org.renwixx.yawl.audit.AuditEvent;
+import org.renwixx.yawl.audit.AuditLog;
+import org.renwixx.yawl.jfr.ExpirySweepEvent;
+import org.renwixx.yawl.jfr.ReloadPhaseEvent;
+import org.renwixx.yawl.storage.FileNetworkStorage;
 import org.renwixx.yawl.storage.FileWhitelistStorage;
 import org.renwixx.yawl.storage.WhitelistEntry;
+import org.renwixx.yawl.storage.WhitelistIndex;
+import org.renwixx.yawl.util.AccessSchedule;
+import org.renwixx.yawl.util.AddressRangeTree;
+import org.renwixx.yawl.util.CaseFolding;
+import org.renwixx.yawl.util.LookupCache;
 import org.slf4j.Logger;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 @Plugin(
         id = "yetanotherwhitelistplugin",
@@ -34,44 +58,81 @@ import java.util.concurrent.ConcurrentHashMap;
 public class Yawl {
 
     public static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+    private static final List<String> LOAD_PHASES = List.of("config", "locales", "whitelist", "networks", "apply");
+    private static final long COMPACTION_BATCH_PAUSE_MILLIS = 100;
+    private static final String ACTIVE_PROFILE_FILE = "active-profile.txt";
 
     private VelocityToBackendBridge velocityToBackendBridge;
     private final ProxyServer server;
     private final Logger logger;
     private final Path dataDirectory;
-    private final Map<String, WhitelistEntry> whitelistedPlayers = new ConcurrentHashMap<>();
+    // The profile all checks and commands use; switching profiles replaces only this reference.
+    private volatile WhitelistProfile active = new WhitelistProfile(WhitelistProfile.DEFAULT, null, new WhitelistIndex(false));
+    private volatile Map<String, WhitelistProfile> profiles = Map.of();
+    private final Map<String, AddressRangeTree.Range> networkRanges = new ConcurrentHashMap<>();
+    private volatile AddressRangeTree networks = AddressRangeTree.of(List.of());
     private boolean useClientLocale = false;
     private PluginConfig config;
     private LocaleManager localeManager;
-    private FileWhitelistStorage storage;
+    private ServerGroupRegistry serverGroups;
+    private ScheduleRegistry schedules;
+    private FileNetworkStorage networkStorage;
+    private FileWhitelistStorage archiveStorage;
+    private volatile LookupCache<String, WhitelistEntry> archiveLookups = new LookupCache<>(0, Duration.ZERO, name -> Optional.empty());
+    private FileWatcher fileWatcher;
+    private AuditLog auditLog;
+    private final BypassCache bypassCache = new BypassCache();
+    private final RecentDenials recentDenials = new RecentDenials();
+    private final UuidResolver uuidResolver;
     private ScheduledTask expiryTask;
     private ScheduledTask placeholderUpdateTask;
+    private ScheduledTask compactionTask;
+    private ScheduledTask windowTask;
+    private volatile boolean ready;
+    // Entries expiring after this moment have not been announced with an EXPIRY event yet.
+    private volatile long expiryCursorMillis = System.currentTimeMillis();
+    private volatile CompletableFuture<Void> startup = new CompletableFuture<>();
 
     @Inject
     public Yawl(ProxyServer server, Logger logger, @DataDirectory Path dataDirectory) {
         this.server = server;
         this.logger = logger;
         this.dataDirectory = dataDirectory;
+        this.serverGroups = new ServerGroupRegistry(Map.of(), logger);
+        this.schedules = new ScheduleRegistry(Map.of(), ZoneId.systemDefault(), logger);
+        this.uuidResolver = new UuidResolver(dataDirectory, logger);
+        this.uuidResolver.setListener(this::fillUuids);
     }
 
     @Subscribe
     public void onProxyInitialization(ProxyInitializeEvent event) {
-        reload();
-
-        server.getEventManager().register(this, new ConnectionListener(this));
-
+        this.localeManager = new LocaleManager(dataDirectory, this, logger);
         this.velocityToBackendBridge = new VelocityToBackendBridge(this, localeManager);
+        saveFlightRecorderSettings();
+        // Registered before loading starts, so logins are gated on 'ready' from the first moment.
+        server.getEventManager().register(this, new ConnectionListener(this));
         server.getEventManager().register(this, this.velocityToBackendBridge);
 
-        CommandManager commandManager = server.getCommandManager();
-        BrigadierCommand yawlCommand = WhitelistCommand.create(this, this.velocityToBackendBridge);
-        commandManager.register(commandManager.metaBuilder("yawl").build(), yawlCommand);
+        // Reads config.toml here and finishes loading in the background.
+        this.startup = reloadAsync().whenComplete((ignored, error) -> {
+            if (error != null) {
+                logger.error("YAWL failed to load; logins stay closed until '/yawl reload' succeeds.", error);
+            } else {
+                ready = true;
+            }
+            // Registered only now so that commands never edit the empty whitelist that is replaced on load.
+            CommandManager commandManager = server.getCommandManager();
+            BrigadierCommand yawlCommand = WhitelistCommand.create(this, this.velocityToBackendBridge);
+            commandManager.register(commandManager.metaBuilder("yawl").build(), yawlCommand);
+        });
+        YawlProvider.register(new YawlApiImpl(this));
 
         logger.info("YAWL (Yet Another Whitelist Plugin) has been enabled!");
     }
 
     @Subscribe
     public void onProxyShutdown(ProxyShutdownEvent event) {
+        YawlProvider.unregister();
         try {
             if (expiryTask != null) {
                 expiryTask.cancel();
@@ -80,42 +141,458 @@ public class Yawl {
             if (placeholderUpdateTask != null) {
                 placeholderUpdateTask.cancel();
             }
-            if (storage != null) {
-                storage.flush(whitelistedPlayers);
+            if (compactionTask != null) {
+                compactionTask.cancel();
+            }
+            if (windowTask != null) {
+                windowTask.cancel();
+            }
+            if (fileWatcher != null) {
+                fileWatcher.stop();
+            }
+            for (WhitelistProfile profile : profiles.values()) {
+                profile.flush();
             }
         } catch (Exception e) {
             logger.error("Error while closing storage", e);
         }
+        uuidResolver.save();
+        if (auditLog != null) {
+            auditLog.stop();
+        }
+    }
+
+    // YAWL's Flight Recorder events are disabled unless a recording uses these settings, so they are
+    // copied next to config.toml where a -XX:StartFlightRecording or jcmd path can point at them.
+    private void saveFlightRecorderSettings() {
+        Path file = dataDirectory.resolve("yawl.jfc");
+        if (Files.exists(file)) {
+            return;
+        }
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("yawl.jfc")) {
+            if (in == null) {
+                logger.error("Default yawl.jfc not found in the plugin JAR!");
+                return;
+            }
+            Files.createDirectories(dataDirectory);
+            Files.copy(in, file);
+        } catch (IOException e) {
+            logger.error("Could not create yawl.jfc!", e);
+        }
     }
 
     public void reload() {
-        this.config = new PluginConfig(dataDirectory, logger);
+        reloadAsync().join();
+        ready = true;
+    }
+
+    // config.toml is read on the calling thread because every other phase depends on it; locales, the
+    // whitelist and network ranges are then loaded in parallel. The config is published together with
+    // the rest at the end, so a failed reload leaves the previous state untouched.
+    public CompletableFuture<Void> reloadAsync() {
+        Map<String, Long> timings = new ConcurrentHashMap<>();
+        long begin = System.nanoTime();
+
+        PluginConfig loadedConfig;
+        ServerGroupRegistry groups;
+        ScheduleRegistry loadedSchedules;
+        try {
+            loadedConfig = timed(timings, "config", () -> new PluginConfig(dataDirectory, logger));
+            groups = new ServerGroupRegistry(loadedConfig.getServerGroups(), logger);
+            groups.bind(server.getAllServers());
+            loadedSchedules = new ScheduleRegistry(loadedConfig.getSchedules(), loadedConfig.getScheduleZone(), logger);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        // On the first load there is nothing the config could disagree with yet, and the login listener
+        // needs the startup settings while the rest loads.
+        if (this.config == null) {
+            applyConfig(loadedConfig);
+        }
+
+        CompletableFuture<Void> locales = CompletableFuture.runAsync(() ->
+                timed(timings, "locales", () -> {
+                    localeManager.setLocale(loadedConfig.getLocale());
+                    return null;
+                }));
+        FileNetworkStorage loadedNetworkStorage = new FileNetworkStorage(dataDirectory.resolve("networks.txt"), dataDirectory, logger);
+        CompletableFuture<Map<String, WhitelistProfile>> whitelistLoad = CompletableFuture.supplyAsync(() ->
+                timed(timings, "whitelist", () -> loadProfiles(groups, loadedSchedules, loadedConfig)));
+        CompletableFuture<Map<String, AddressRangeTree.Range>> networkLoad = CompletableFuture.supplyAsync(() ->
+                timed(timings, "networks", () -> loadNetworks(loadedNetworkStorage)));
 
-        this.useClientLocale = config.isUseClientLocale();
-        if (this.localeManager == null) {
-            this.localeManager = new LocaleManager(dataDirectory, this, config.getLocale(), logger);
+        return CompletableFuture.allOf(locales, whitelistLoad, networkLoad).thenRun(() -> {
+            timed(timings, "apply", () -> {
+                applyConfig(loadedConfig);
+                // Whitelist storages travel inside their profiles, so no flush writes an old index to a new file.
+                this.archiveStorage = new FileWhitelistStorage(dataDirectory.resolve("archive.txt"), dataDirectory, groups, loadedSchedules, logger);
+                this.archiveLookups = new LookupCache<>(loadedConfig.getLookupCacheSize(), loadedConfig.getNegativeCacheTtl(), this::findArchived);
+                this.networkStorage = loadedNetworkStorage;
+                apply(groups, loadedSchedules, whitelistLoad.join(), networkLoad.join());
+                return null;
+            });
+            StringJoiner phases = new StringJoiner(", ");
+            for (String phase : LOAD_PHASES) {
+                phases.add(phase + " " + timings.getOrDefault(phase, 0L) + " ms");
+            }
+            logger.info("Loaded in {} ms ({}).", (System.nanoTime() - begin) / 1_000_000L, phases);
+        });
+    }
+
+    private void applyConfig(PluginConfig loadedConfig) {
+        this.config = loadedConfig;
+        this.useClientLocale = loadedConfig.isUseClientLocale();
+        this.bypassCache.setTtl(loadedConfig.getBypassCacheTtl());
+        this.recentDenials.setSize(loadedConfig.getRecentDenialsSize());
+        this.uuidResolver.configure(loadedConfig);
+        if (this.auditLog == null) {
+            this.auditLog = new AuditLog(dataDirectory, loadedConfig.getAuditBufferSize(), logger);
+            this.auditLog.configure(loadedConfig);
+            this.auditLog.start();
         } else {
-            this.localeManager.setLocale(config.getLocale());
+            this.auditLog.configure(loadedConfig);
         }
+    }
 
+    private static <T> T timed(Map<String, Long> timings, String phase, Supplier<T> work) {
+        ReloadPhaseEvent event = new ReloadPhaseEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
-            storage = new FileWhitelistStorage(dataDirectory.resolve("whitelist.txt"), dataDirectory, logger);
-            storage.init();
-            whitelistedPlayers.clear();
-            Map<String, WhitelistEntry> loaded = storage.loadAll();
-            for (WhitelistEntry e : loaded.values()) {
-                String canonNow = canonical(e.getOriginalName());
-                whitelistedPlayers.put(canonNow, new WhitelistEntry(canonNow, e.getOriginalName(), e.getExpiresAtMillis()));
+            return work.get();
+        } finally {
+            timings.put(phase, (System.nanoTime() - start) / 1_000_000L);
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase;
+                event.commit();
+            }
+        }
+    }
+
+    // whitelist.txt is the default profile and every profiles/<name>.txt another one. All of them are kept in
+    // memory, with names that occur in several profiles sharing one String, so a switch never reads a file.
+    private Map<String, WhitelistProfile> loadProfiles(ServerGroupRegistry groups, ScheduleRegistry loadedSchedules,
+                                                       PluginConfig loadedConfig) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, WhitelistProfile> loaded = new TreeMap<>();
+        loaded.put(WhitelistProfile.DEFAULT, loadProfile(WhitelistProfile.DEFAULT, dataDirectory.resolve("whitelist.txt"),
+                groups, loadedSchedules, loadedConfig, names));
+        Path profileDirectory = dataDirectory.resolve("profiles");
+        if (!Files.isDirectory(profileDirectory)) {
+            return loaded;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(profileDirectory, "*.txt")) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String name = fileName.substring(0, fileName.length() - ".txt".length());
+                if (!WhitelistProfile.isValidName(name) || name.equals(WhitelistProfile.DEFAULT)) {
+                    logger.warn("Ignoring profiles/{}: profile names use a-z, 0-9, '_' and '-' and cannot be '{}'.",
+                            fileName, WhitelistProfile.DEFAULT);
+                    continue;
+                }
+                loaded.put(name, loadProfile(name, file, groups, loadedSchedules, loadedConfig, names));
             }
+        } catch (IOException e) {
+            logger.error("Failed to list whitelist profiles in {}", profileDirectory, e);
+        }
+        return loaded;
+    }
+
+    private WhitelistProfile loadProfile(String name, Path file, ServerGroupRegistry groups, ScheduleRegistry loadedSchedules,
+                                         PluginConfig loadedConfig, Map<String, String> names) {
+        FileWhitelistStorage loadedStorage = new FileWhitelistStorage(file, dataDirectory, groups, loadedSchedules, logger);
+        WhitelistIndex loadedIndex = new WhitelistIndex(loadedConfig.isCaseSensitive());
+        try {
+            loadedStorage.init();
+            loadedIndex.replaceAll(loadWhitelistEntries(loadedStorage, loadedConfig, names));
+        } catch (Exception e) {
+            logger.error("Failed to initialize storage for profile '{}'. Fallback to empty whitelist.", name, e);
+        }
+        return new WhitelistProfile(name, loadedStorage, loadedIndex);
+    }
+
+    // The profile named in active-profile.txt, or the default one when the file is missing or names no profile.
+    private WhitelistProfile selectActiveProfile(Map<String, WhitelistProfile> loadedProfiles) {
+        Path file = dataDirectory.resolve(ACTIVE_PROFILE_FILE);
+        if (!Files.exists(file)) {
+            return loadedProfiles.get(WhitelistProfile.DEFAULT);
+        }
+        String name;
+        try {
+            name = Files.readString(file).trim().toLowerCase(Locale.ROOT);
+        } catch (IOException e) {
+            logger.error("Failed to read {}; using the '{}' profile.", ACTIVE_PROFILE_FILE, WhitelistProfile.DEFAULT, e);
+            return loadedProfiles.get(WhitelistProfile.DEFAULT);
+        }
+        WhitelistProfile selected = loadedProfiles.get(name);
+        if (selected == null) {
+            logger.warn("Profile '{}' from {} does not exist; using the '{}' profile.", name, ACTIVE_PROFILE_FILE, WhitelistProfile.DEFAULT);
+            return loadedProfiles.get(WhitelistProfile.DEFAULT);
+        }
+        return selected;
+    }
+
+    private void saveActiveProfile(String name) {
+        Path file = dataDirectory.resolve(ACTIVE_PROFILE_FILE);
+        Path tempFile = file.resolveSibling(ACTIVE_PROFILE_FILE + ".tmp");
+        try {
+            Files.writeString(tempFile, name + System.lineSeparator());
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Failed to save the active profile; '{}' stays active until the next restart.", name, e);
+        }
+    }
+
+    private Map<String, AddressRangeTree.Range> loadNetworks(FileNetworkStorage loadedStorage) {
+        try {
+            loadedStorage.init();
+            return loadedStorage.loadAll();
         } catch (Exception e) {
-            logger.error("Failed to initialize storage. Fallback to empty whitelist.", e);
-            whitelistedPlayers.clear();
+            logger.error("Failed to load network ranges. Fallback to no ranges.", e);
+            return Map.of();
+        }
+    }
+
+    private void apply(ServerGroupRegistry groups, ScheduleRegistry loadedSchedules, Map<String, WhitelistProfile> loadedProfiles,
+                       Map<String, AddressRangeTree.Range> loadedRanges) {
+        WhitelistProfile previous = this.active;
+        WhitelistProfile selected = selectActiveProfile(loadedProfiles);
+        this.serverGroups = groups;
+        this.schedules = loadedSchedules;
+        this.profiles = loadedProfiles;
+        this.active = selected;
+        this.expiryCursorMillis = System.currentTimeMillis();
+        synchronized (networkRanges) {
+            networkRanges.clear();
+            networkRanges.putAll(loadedRanges);
+            this.networks = AddressRangeTree.of(networkRanges.values());
+        }
+        if (config.getNetworkMode() == PluginConfig.NetworkMode.AND && networks.isEmpty()) {
+            logger.warn("network.mode is 'and' but networks.txt has no ranges; only the name whitelist applies.");
         }
 
         removeExpiredEntriesAndMaybeKick(false);
         checkAndKickNonWhitelistedPlayers();
         scheduleExpirySweep();
         schedulePlaceholderUpdates();
+        scheduleCompaction();
+        scheduleWindowEnforcement();
+        restartFileWatcher();
+        loadedProfiles.values().forEach(profile -> requestMissingUuids(profile.index().entries()));
+        // The first load is not a change; every later reload announces what differs from before.
+        if (ready) {
+            publish(WhitelistChangeEvent.Cause.RELOAD, AuditLog.SYSTEM, diff(previous.index(), selected.index()));
+        }
+    }
+
+    private List<WhitelistChange> diff(WhitelistIndex before, WhitelistIndex after) {
+        List<WhitelistChange> changes = new ArrayList<>();
+        for (WhitelistEntry entry : after.entries()) {
+            WhitelistEntry old = before.get(entry.getCanonicalName());
+            if (old == null) {
+                changes.add(change(WhitelistChange.Type.ADDED, null, entry));
+            } else if (!sameEntry(old, entry)) {
+                changes.add(change(WhitelistChange.Type.UPDATED, old, entry));
+            }
+        }
+        for (WhitelistEntry entry : before.entries()) {
+            if (after.get(entry.getCanonicalName()) == null) {
+                changes.add(change(WhitelistChange.Type.REMOVED, entry, null));
+            }
+        }
+        return changes;
+    }
+
+    // Names already in the pool are reused instead of the copies just read, so equal names share one String.
+    private static Map<String, WhitelistEntry> loadWhitelistEntries(FileWhitelistStorage source, PluginConfig loadedConfig,
+                                                                    Map<String, String> names) throws IOException {
+        Map<String, WhitelistEntry> canonicalized = new HashMap<>();
+        for (WhitelistEntry e : source.loadAll().values()) {
+            String original = names.computeIfAbsent(e.getOriginalName(), name -> name);
+            String canonNow = names.computeIfAbsent(loadedConfig.isCaseSensitive() ? original : CaseFolding.fold(original), name -> name);
+            canonicalized.put(canonNow, new WhitelistEntry(canonNow, original, e.getExpiresAtMillis(), e.getServerGroups(), e.getSchedule(), e.getUuid()));
+        }
+        return canonicalized;
+    }
+
+    private void restartFileWatcher() {
+        if (fileWatcher != null) {
+            fileWatcher.stop();
+            fileWatcher = null;
+        }
+        if (config.isWatchFiles()) {
+            fileWatcher = new FileWatcher(this, dataDirectory, Duration.ofMillis(config.getWatchDebounceMillis()), this::onFileChanged);
+            fileWatcher.start();
+        }
+    }
+
+    private void onFileChanged(Path file) {
+        String name = file.getFileName().toString();
+        if (file.getParent().equals(dataDirectory.resolve("locales"))) {
+            if (name.endsWith(".toml")) {
+                logger.info("Detected changes in {}, reloading its messages.", name);
+                localeManager.reloadFile(name.substring(0, name.length() - ".toml".length()));
+            }
+            return;
+        }
+        if (file.getParent().equals(dataDirectory.resolve("profiles"))) {
+            WhitelistProfile profile = name.endsWith(".txt") ? profiles.get(name.substring(0, name.length() - ".txt".length())) : null;
+            if (profile != null) {
+                applyWhitelistFileChanges(profile);
+            } else if (name.endsWith(".txt")) {
+                logger.info("Detected new profile file profiles/{}; run '/yawl reload' to load it.", name);
+            }
+            return;
+        }
+        switch (name) {
+            case "whitelist.txt" -> {
+                WhitelistProfile profile = profiles.get(WhitelistProfile.DEFAULT);
+                if (profile != null) {
+                    applyWhitelistFileChanges(profile);
+                }
+            }
+            case "networks.txt" -> {
+                if (networkStorage != null && !networkStorage.isUnchangedSinceLastAccess()) {
+                    applyNetworkFileChanges();
+                }
+            }
+            case "config.toml" -> {
+                logger.info("Detected changes in config.toml, reloading the plugin.");
+                reload();
+            }
+            default -> { }
+        }
+    }
+
+    // Edits of a profile that is not active only update that profile; they are announced once it is switched to.
+    private void applyWhitelistFileChanges(WhitelistProfile profile) {
+        if (profile.storage() == null || profile.storage().isUnchangedSinceLastAccess()) {
+            return;
+        }
+        Map<String, WhitelistEntry> fromDisk;
+        try {
+            fromDisk = loadWhitelistEntries(profile.storage(), config, new HashMap<>());
+        } catch (IOException e) {
+            logger.error("Failed to read the '{}' profile after it changed; keeping the loaded whitelist.", profile.name(), e);
+            return;
+        }
+        WhitelistIndex current = profile.index();
+        Map<String, WhitelistEntry> changed = new HashMap<>();
+        Map<String, WhitelistEntry> previous = new HashMap<>();
+        List<WhitelistEntry> removed = new ArrayList<>();
+        for (WhitelistEntry entry : fromDisk.values()) {
+            WhitelistEntry old = current.get(entry.getCanonicalName());
+            if (old == null || !sameEntry(old, entry)) {
+                changed.put(entry.getCanonicalName(), entry);
+                if (old != null) {
+                    previous.put(entry.getCanonicalName(), old);
+                }
+            }
+        }
+        for (WhitelistEntry entry : current.entries()) {
+            if (!fromDisk.containsKey(entry.getCanonicalName())) {
+                removed.add(entry);
+            }
+        }
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        removed.forEach(entry -> current.remove(entry.getCanonicalName()));
+        current.putAll(changed);
+        requestMissingUuids(changed.values());
+        if (profile != active) {
+            logger.info("Applied changes to the inactive '{}' profile: {} added or updated, {} removed.",
+                    profile.name(), changed.size(), removed.size());
+            return;
+        }
+        for (WhitelistEntry entry : removed) {
+            auditLog.record(AuditLog.FILE, AuditEvent.Action.REMOVE, entry.getOriginalName(),
+                    entry.expiresAtMillis(), AuditEvent.NONE, null);
+        }
+        for (WhitelistEntry entry : changed.values()) {
+            WhitelistEntry old = previous.get(entry.getCanonicalName());
+            auditLog.record(AuditLog.FILE, old == null ? AuditEvent.Action.ADD : AuditEvent.Action.UPDATE,
+                    entry.getOriginalName(), old == null ? AuditEvent.NONE : old.expiresAtMillis(),
+                    entry.expiresAtMillis(), serverGroups.format(entry.getServerGroups()));
+        }
+        logger.info("Applied changes to the '{}' profile: {} added or updated, {} removed.", profile.name(), changed.size(), removed.size());
+        List<WhitelistChange> changes = new ArrayList<>();
+        removed.forEach(entry -> changes.add(change(WhitelistChange.Type.REMOVED, entry, null)));
+        changed.values().forEach(entry -> {
+            WhitelistEntry old = previous.get(entry.getCanonicalName());
+            changes.add(change(old == null ? WhitelistChange.Type.ADDED : WhitelistChange.Type.UPDATED, old, entry));
+        });
+        publish(WhitelistChangeEvent.Cause.FILE, AuditLog.FILE, changes);
+
+        if (config.isKickActiveOnRevoke() && !removed.isEmpty()) {
+            checkAndKickNonWhitelistedPlayers();
+        }
+        if (velocityToBackendBridge != null) {
+            velocityToBackendBridge.sendWhitelistUpdates(server.getAllPlayers());
+        }
+    }
+
+    private void requestMissingUuids(Collection<WhitelistEntry> entries) {
+        if (uuidResolver.isEnabled()) {
+            uuidResolver.request(entries.stream()
+                    .filter(entry -> entry.getUuid() == null && !entry.isPattern())
+                    .map(WhitelistEntry::getOriginalName)
+                    .toList());
+        }
+    }
+
+    // Stores resolved UUIDs on the entries that still lack one, with one flush per profile and resolved batch.
+    private void fillUuids(Map<String, UUID> resolved) {
+        for (WhitelistProfile profile : profiles.values()) {
+            fillUuids(profile, resolved);
+        }
+    }
+
+    private void fillUuids(WhitelistProfile profile, Map<String, UUID> resolved) {
+        WhitelistIndex index = profile.index();
+        Map<String, UUID> byName = new HashMap<>();
+        List<WhitelistEntry> targets = new ArrayList<>();
+        resolved.forEach((name, uuid) -> {
+            WhitelistEntry entry = index.get(canonical(name));
+            if (entry != null && entry.getUuid() == null) {
+                byName.put(entry.getCanonicalName(), uuid);
+                targets.add(entry);
+            }
+        });
+        if (index.updateAll(targets, entry -> entry.withUuid(byName.get(entry.getCanonicalName()))).isEmpty()) {
+            return;
+        }
+        try {
+            profile.flush();
+        } catch (Exception e) {
+            logger.error("Failed to save {} resolved UUIDs", targets.size(), e);
+        }
+    }
+
+    private static boolean sameEntry(WhitelistEntry a, WhitelistEntry b) {
+        return a.getOriginalName().equals(b.getOriginalName())
+                && a.expiresAtMillis() == b.expiresAtMillis()
+                && a.getServerGroups() == b.getServerGroups()
+                && a.getSchedule() == b.getSchedule()
+                && Objects.equals(a.getUuid(), b.getUuid());
+    }
+
+    private void applyNetworkFileChanges() {
+        synchronized (networkRanges) {
+            try {
+                Map<String, AddressRangeTree.Range> loaded = networkStorage.loadAll();
+                networkRanges.keySet().retainAll(loaded.keySet());
+                networkRanges.putAll(loaded);
+            } catch (IOException e) {
+                logger.error("Failed to read networks.txt after it changed; keeping the loaded ranges.", e);
+                return;
+            }
+            this.networks = AddressRangeTree.of(networkRanges.values());
+        }
+        if (config.isKickActiveOnRevoke()) {
+            checkAndKickNonWhitelistedPlayers();
+        }
     }
 
     private void schedulePlaceholderUpdates() {
@@ -128,9 +605,7 @@ public class Yawl {
         placeholderUpdateTask = server.getScheduler()
                 .buildTask(this, () -> {
                     if (velocityToBackendBridge == null) return;
-                    for (Player player : server.getAllPlayers()) {
-                        velocityToBackendBridge.sendWhitelistUpdate(player);
-                    }
+                    velocityToBackendBridge.sendWhitelistUpdates(server.getAllPlayers());
                 })
                 .repeat(Duration.ofMinutes(config.getPlaceholderReloadInterval()))
                 .schedule();
@@ -144,20 +619,170 @@ public class Yawl {
         } catch (Exception ignored) {}
         expiryTask = server.getScheduler()
                 .buildTask(this, () -> {
-                    if (!config.isEnabled()) return;
-                    removeExpiredEntriesAndMaybeKick(config.isKickActiveOnRevoke());
+                    ExpirySweepEvent sweep = new ExpirySweepEvent();
+                    sweep.begin();
+                    int expired = publishExpired();
+                    boolean kickPass = config.isEnabled() && config.isKickActiveOnRevoke();
+                    int kicked = kickPass ? removeExpiredEntriesAndMaybeKick(true) : 0;
+                    sweep.end();
+                    if (sweep.shouldCommit()) {
+                        sweep.scanned = kickPass ? active.index().size() : 0;
+                        sweep.expired = expired;
+                        sweep.kicked = kicked;
+                        sweep.commit();
+                    }
                 })
                 .repeat(Duration.ofSeconds(5))
                 .schedule();
     }
 
+    private void scheduleCompaction() {
+        try {
+            if (compactionTask != null) {
+                compactionTask.cancel();
+            }
+        } catch (Exception ignored) {}
+        compactionTask = server.getScheduler()
+                .buildTask(this, this::compactExpiredEntries)
+                .delay(Duration.ofMinutes(1))
+                .repeat(Duration.ofMinutes(10))
+                .schedule();
+    }
+
+    // Fires exactly when the next schedule opens or closes, kicks players whose window just closed and
+    // re-arms itself for the transition after that.
+    private synchronized void scheduleWindowEnforcement() {
+        try {
+            if (windowTask != null) {
+                windowTask.cancel();
+            }
+        } catch (Exception ignored) {}
+        windowTask = null;
+        long now = System.currentTimeMillis();
+        long next = schedules.nextTransition(now);
+        if (next == Long.MAX_VALUE) {
+            return;
+        }
+        windowTask = server.getScheduler()
+                .buildTask(this, () -> {
+                    if (config.isEnabled() && config.isKickActiveOnRevoke()) {
+                        kickOutsideWindows();
+                    }
+                    scheduleWindowEnforcement();
+                })
+                .delay(Duration.ofMillis(Math.max(0L, next - now)))
+                .schedule();
+    }
+
+    private void kickOutsideWindows() {
+        Component message = localeManager.getMessage("kick-window-closed");
+        for (Player player : server.getAllPlayers()) {
+            if (!bypassCache.hasBypass(player) && !isAllowed(player)) {
+                player.disconnect(message);
+                logger.info("Kicked player {} because their access window closed.", player.getUsername());
+            }
+        }
+    }
+
+    // Evicts entries whose grace period has passed in small batches. Each batch runs as its own delayed task,
+    // so a large backlog holds neither the index lock nor a scheduler thread for long. Every profile is
+    // compacted into its own file, not just the active one.
+    private void compactExpiredEntries() {
+        long grace = config.getRetentionGraceMillis();
+        if (grace < 0) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - grace;
+        for (WhitelistProfile profile : profiles.values()) {
+            if (profile.storage() == null) {
+                continue;
+            }
+            List<WhitelistEntry> dead = profile.index().entries().stream().filter(e -> e.isExpired(cutoff)).toList();
+            if (!dead.isEmpty()) {
+                compactBatch(profile, dead, 0, config.isRetentionArchive(), config.getRetentionBatchSize(), new ArrayList<>());
+            }
+        }
+    }
+
+    private void compactBatch(WhitelistProfile profile, List<WhitelistEntry> dead, int from, boolean archive, int batchSize, List<WhitelistChange> changes) {
+        WhitelistIndex index = profile.index();
+        List<WhitelistEntry> batch = index.removeAll(dead.subList(from, Math.min(dead.size(), from + batchSize)));
+        if (!batch.isEmpty()) {
+            // The profile is written first, so a failed write never leaves an entry in both files.
+            try {
+                try {
+                    profile.flush();
+                } catch (IOException e) {
+                    restoreBatch(profile, batch);
+                    throw e;
+                }
+                if (archive) {
+                    appendToArchive(profile, batch);
+                    batch.forEach(entry -> archiveLookups.invalidate(entry.getCanonicalName()));
+                }
+            } catch (IOException e) {
+                logger.error("Failed to compact expired whitelist entries; keeping them for now.", e);
+                finishCompaction(profile, archive, changes);
+                return;
+            }
+            for (WhitelistEntry entry : batch) {
+                auditLog.record(AuditLog.SYSTEM, archive ? AuditEvent.Action.ARCHIVE : AuditEvent.Action.REMOVE,
+                        entry.getOriginalName(), entry.expiresAtMillis(), AuditEvent.NONE, "retention");
+                changes.add(change(WhitelistChange.Type.REMOVED, entry, null));
+            }
+        }
+        int next = from + batchSize;
+        if (next < dead.size()) {
+            server.getScheduler()
+                    .buildTask(this, () -> compactBatch(profile, dead, next, archive, batchSize, changes))
+                    .delay(Duration.ofMillis(COMPACTION_BATCH_PAUSE_MILLIS))
+                    .schedule();
+            return;
+        }
+        finishCompaction(profile, archive, changes);
+    }
+
+    // If archive.txt cannot be written, the batch goes back into the profile and its file.
+    private void appendToArchive(WhitelistProfile profile, List<WhitelistEntry> batch) throws IOException {
+        try {
+            synchronized (archiveStorage) {
+                archiveStorage.append(batch);
+            }
+        } catch (IOException e) {
+            restoreBatch(profile, batch);
+            try {
+                profile.flush();
+            } catch (IOException again) {
+                e.addSuppressed(again);
+            }
+            throw e;
+        }
+    }
+
+    private void restoreBatch(WhitelistProfile profile, List<WhitelistEntry> batch) {
+        Map<String, WhitelistEntry> restore = new HashMap<>();
+        batch.forEach(entry -> restore.put(entry.getCanonicalName(), entry));
+        profile.index().putAll(restore);
+    }
+
+    // Removals from a profile that is not active are announced once it is switched to.
+    private void finishCompaction(WhitelistProfile profile, boolean archive, List<WhitelistChange> changes) {
+        if (profile == active) {
+            publish(WhitelistChangeEvent.Cause.RETENTION, AuditLog.SYSTEM, changes);
+        }
+        if (!changes.isEmpty()) {
+            logger.info("Removed {} entries of profile '{}' whose retention period ended{}.", changes.size(), profile.name(),
+                    archive ? " (moved to archive.txt)" : "");
+        }
+    }
+
     public void checkAndKickNonWhitelistedPlayers() {
         if (!config.isEnabled())
             return;
 
         Component kickMessage = localeManager.getMessage("kick-message");
         for (Player player : server.getAllPlayers()) {
-            if (!player.hasPermission(Permissions.BYPASS) && !isWhitelisted(player.getUsername())) {
+            if (!bypassCache.hasBypass(player) && !isAllowed(player)) {
                 player.disconnect(kickMessage);
                 logger.info("Kicked player {} because they are not in whitelist.", player.getUsername());
             }
@@ -165,105 +790,454 @@ public class Yawl {
     }
 
     private String canonical(String name) {
-        return config.isCaseSensitive() ? name : name.toLowerCase(Locale.ROOT);
+        return config.isCaseSensitive() ? name : CaseFolding.fold(name);
     }
 
     public boolean isWhitelisted(String playerName) {
-        WhitelistEntry entry = whitelistedPlayers.get(canonical(playerName));
-        if (entry == null) return false;
-        return !entry.isExpired();
+        return active.index().isWhitelisted(playerName);
+    }
+
+    // Online players are checked by name, so wildcard entries apply to them; anyone else is found through
+    // the UUID resolved for their entry.
+    public boolean isWhitelisted(UUID uniqueId) {
+        return isWhitelisted(active.index(), uniqueId, System.currentTimeMillis());
+    }
+
+    public Map<UUID, Boolean> checkAllById(Collection<UUID> uniqueIds) {
+        WhitelistIndex index = active.index();
+        long now = System.currentTimeMillis();
+        Map<UUID, Boolean> result = new LinkedHashMap<>();
+        for (UUID uniqueId : uniqueIds) {
+            result.put(uniqueId, isWhitelisted(index, uniqueId, now));
+        }
+        return result;
+    }
+
+    private boolean isWhitelisted(WhitelistIndex index, UUID uniqueId, long now) {
+        Optional<Player> player = server.getPlayer(uniqueId);
+        if (player.isPresent()) {
+            return index.find(player.get().getUsername(), now, 0L) != null;
+        }
+        WhitelistEntry entry = index.getByUuid(uniqueId);
+        return entry != null && entry.isActive(now);
+    }
+
+    // Bulk lookup against one index snapshot and one clock reading, in the order of the input.
+    public Map<String, Boolean> checkAll(Collection<String> names) {
+        WhitelistIndex index = active.index();
+        long now = System.currentTimeMillis();
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        for (String name : names) {
+            result.put(name, index.find(name, now, 0L) != null);
+        }
+        return result;
+    }
+
+    public boolean isAllowed(Player player) {
+        return isAllowed(player.getUsername(), player.getRemoteAddress());
+    }
+
+    public boolean isAllowed(String playerName, InetSocketAddress address) {
+        PluginConfig.NetworkMode mode = config.getNetworkMode();
+        AddressRangeTree ranges = networks;
+        if (mode == PluginConfig.NetworkMode.OFF || ranges.isEmpty()) {
+            return isWhitelisted(playerName);
+        }
+        boolean inNetwork = address != null && address.getAddress() != null && ranges.contains(address.getAddress());
+        return mode == PluginConfig.NetworkMode.OR
+                ? inNetwork || isWhitelisted(playerName)
+                : inNetwork && isWhitelisted(playerName);
+    }
+
+    // The part of the network rule that can be decided before authentication.
+    public boolean passesNetworkGate(InetSocketAddress address) {
+        AddressRangeTree ranges = networks;
+        if (config.getNetworkMode() != PluginConfig.NetworkMode.AND || ranges.isEmpty()) {
+            return true;
+        }
+        return address != null && address.getAddress() != null && ranges.contains(address.getAddress());
+    }
+
+    public List<String> getNetworks() {
+        return networkRanges.keySet().stream().sorted().toList();
+    }
+
+    public boolean addNetwork(String actor, AddressRangeTree.Range range) {
+        synchronized (networkRanges) {
+            if (networkRanges.putIfAbsent(range.text(), range) != null) {
+                return false;
+            }
+            auditLog.record(actor, AuditEvent.Action.NETWORK_ADD, range.text(), AuditEvent.NONE, AuditEvent.NONE, null);
+            this.networks = AddressRangeTree.of(networkRanges.values());
+            try {
+                if (networkStorage != null) {
+                    networkStorage.flush(networkRanges.values());
+                }
+            } catch (Exception e) {
+                logger.error("Failed to persist network range {}", range.text(), e);
+            }
+            return true;
+        }
+    }
+
+    public boolean removeNetwork(String actor, AddressRangeTree.Range range) {
+        synchronized (networkRanges) {
+            if (networkRanges.remove(range.text()) == null) {
+                return false;
+            }
+            auditLog.record(actor, AuditEvent.Action.NETWORK_REMOVE, range.text(), AuditEvent.NONE, AuditEvent.NONE, null);
+            this.networks = AddressRangeTree.of(networkRanges.values());
+            try {
+                if (networkStorage != null) {
+                    networkStorage.flush(networkRanges.values());
+                }
+            } catch (Exception e) {
+                logger.error("Failed to persist removal of network range {}", range.text(), e);
+            }
+        }
+        if (config.isKickActiveOnRevoke()) {
+            checkAndKickNonWhitelistedPlayers();
+        }
+        return true;
+    }
+
+    public boolean canAccessServer(String playerName, RegisteredServer target) {
+        long required = serverGroups.requiredMask(target);
+        if (required == 0L) return true;
+        return active.index().find(playerName, System.currentTimeMillis(), required) != null;
     }
 
     public List<String> getWhitelistedPlayers() {
-        return whitelistedPlayers.values().stream()
+        return active.index().entries().stream()
                 .filter(e -> !e.isExpired())
                 .sorted(Comparator.comparing(WhitelistEntry::getOriginalName, String.CASE_INSENSITIVE_ORDER))
                 .map(WhitelistEntry::getOriginalName)
                 .toList();
     }
 
-    public boolean addPlayer(String playerName) {
-        return addPlayerInternal(playerName, null);
+    // Entries whose access ends within the given time from now, soonest first; permanent entries never appear.
+    public NavigableSet<WhitelistEntry> getExpiring(Duration within) {
+        long now = System.currentTimeMillis();
+        long span = within.toMillis();
+        return active.index().expiring(now, span >= Long.MAX_VALUE - now ? Long.MAX_VALUE : now + span);
     }
 
-    public boolean addPlayer(String playerName, Duration duration) {
+    public WhitelistProfile getActiveProfile() {
+        return active;
+    }
+
+    public List<String> getProfileNames() {
+        return List.copyOf(profiles.keySet());
+    }
+
+    // Activates a loaded profile with one reference swap. Only online players who were on the previous
+    // profile and are not on the new one are checked again; everyone else keeps the access they had.
+    public synchronized boolean switchProfile(String actor, String name) {
+        WhitelistProfile next = profiles.get(name.trim().toLowerCase(Locale.ROOT));
+        if (next == null) {
+            return false;
+        }
+        WhitelistProfile previous = active;
+        if (next == previous) {
+            return true;
+        }
+        active = next;
+        expiryCursorMillis = System.currentTimeMillis();
+        saveActiveProfile(next.name());
+        auditLog.record(actor, AuditEvent.Action.PROFILE, next.name(), AuditEvent.NONE, AuditEvent.NONE,
+                previous.name() + " -> " + next.name());
+        logger.info("Switched the whitelist from the '{}' profile to '{}'.", previous.name(), next.name());
+        publish(WhitelistChangeEvent.Cause.PROFILE, actor, diff(previous.index(), next.index()));
+        if (config.isEnabled()) {
+            long now = System.currentTimeMillis();
+            Component kickMessage = localeManager.getMessage("kick-message");
+            for (Player player : server.getAllPlayers()) {
+                String username = player.getUsername();
+                if (previous.index().find(username, now, 0L) != null && next.index().find(username, now, 0L) == null
+                        && !bypassCache.hasBypass(player) && !isAllowed(player)) {
+                    player.disconnect(kickMessage);
+                    logger.info("Kicked player {} because they are not in the '{}' profile.", username, next.name());
+                }
+            }
+        }
+        if (velocityToBackendBridge != null) {
+            velocityToBackendBridge.sendWhitelistUpdates(server.getAllPlayers());
+        }
+        return true;
+    }
+
+    public boolean addPlayer(String actor, String playerName) {
+        return addPlayerInternal(actor, playerName, null, 0L);
+    }
+
+    public boolean addPlayer(String actor, String playerName, Duration duration) {
+        return addPlayer(actor, playerName, duration, 0L);
+    }
+
+    public boolean addPlayer(String actor, String playerName, Duration duration, long serverGroups) {
         Long expiresAt = duration == null ? null : Instant.now().plus(duration).toEpochMilli();
-        return addPlayerInternal(playerName, expiresAt);
+        return addPlayerInternal(actor, playerName, expiresAt, serverGroups);
     }
 
     public Optional<WhitelistEntry> getEntry(String playerName) {
         String processed = playerName.trim();
         if (processed.isEmpty()) return Optional.empty();
         String canonical = canonical(processed);
-        return Optional.ofNullable(whitelistedPlayers.get(canonical));
+        return Optional.ofNullable(active.index().get(canonical));
     }
 
-    public boolean updatePlayerExpiry(String playerName, Long expiresAtMillis) {
+    // Moves an entry that retention archived back into the whitelist, unchanged, so callers can extend it.
+    // Looks the name up in archive.txt without restoring it. Most names asked for were never archived;
+    // the cache answers those without reading the file.
+    public Optional<WhitelistEntry> getArchivedEntry(String playerName) {
+        String processed = playerName.trim();
+        if (processed.isEmpty() || archiveStorage == null) return Optional.empty();
+        try {
+            return archiveLookups.get(canonical(processed));
+        } catch (UncheckedIOException e) {
+            logger.error("Failed to read archive.txt while looking for {}", processed, e.getCause());
+            return Optional.empty();
+        }
+    }
+
+    public Optional<WhitelistEntry> restoreArchived(String actor, String playerName) {
+        WhitelistProfile profile = active;
+        String processed = playerName.trim();
+        if (getArchivedEntry(processed).isEmpty()) {
+            return Optional.empty();
+        }
+        String canonical = canonical(processed);
+        archiveLookups.invalidate(canonical);
+        synchronized (archiveStorage) {
+            Map<String, WhitelistEntry> archived;
+            try {
+                archived = archiveStorage.loadAll();
+            } catch (IOException e) {
+                logger.error("Failed to read archive.txt while looking for {}", processed, e);
+                return Optional.empty();
+            }
+            WhitelistEntry found = null;
+            for (Iterator<WhitelistEntry> it = archived.values().iterator(); it.hasNext(); ) {
+                WhitelistEntry entry = it.next();
+                if (canonical(entry.getOriginalName()).equals(canonical)) {
+                    found = entry;
+                    it.remove();
+                }
+            }
+            if (found == null) {
+                return Optional.empty();
+            }
+            WhitelistEntry restored = new WhitelistEntry(canonical, found.getOriginalName(), found.getExpiresAtMillis(),
+                    found.getServerGroups(), found.getSchedule(), found.getUuid());
+            WhitelistEntry existing = profile.index().putIfAbsent(restored);
+            if (existing != null) {
+                return Optional.of(existing);
+            }
+            auditLog.record(actor, AuditEvent.Action.RESTORE, restored.getOriginalName(), AuditEvent.NONE, restored.expiresAtMillis(), null);
+            try {
+                archiveStorage.flush(archived.values());
+                profile.flush();
+            } catch (IOException e) {
+                logger.error("Failed to persist restored whitelist entry for {}", processed, e);
+            }
+            publish(actor, change(WhitelistChange.Type.ADDED, null, restored));
+            return Optional.of(restored);
+        }
+    }
+
+    private Optional<WhitelistEntry> findArchived(String canonical) {
+        FileWhitelistStorage archive = archiveStorage;
+        if (archive == null) return Optional.empty();
+        synchronized (archive) {
+            try {
+                return archive.loadAll().values().stream()
+                        .filter(entry -> canonical(entry.getOriginalName()).equals(canonical))
+                        .findFirst();
+            } catch (IOException e) {
+                // Thrown rather than answered, so a read error is not cached as "not archived".
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public Optional<WhitelistEntry> getEffectiveEntry(String playerName) {
+        return Optional.ofNullable(active.index().findEffective(playerName));
+    }
+
+    public boolean updatePlayerExpiry(String actor, String playerName, Long expiresAtMillis) {
+        WhitelistProfile profile = active;
         String processed = playerName.trim();
         if (processed.isEmpty()) return false;
         String canonical = canonical(processed);
-        WhitelistEntry old = whitelistedPlayers.get(canonical);
+        WhitelistEntry old = profile.index().get(canonical);
         if (old == null) {
             return false;
         }
-        WhitelistEntry updated = new WhitelistEntry(canonical, old.getOriginalName(), expiresAtMillis);
-        whitelistedPlayers.put(canonical, updated);
+        WhitelistEntry updated = old.withExpiresAtMillis(expiresAtMillis);
+        profile.index().put(updated);
+        auditLog.record(actor, AuditEvent.Action.EXTEND, old.getOriginalName(), old.expiresAtMillis(), updated.expiresAtMillis(), null);
         try {
-            if (storage != null) {
-                storage.flush(whitelistedPlayers);
-            }
+            profile.flush();
         } catch (Exception e) {
             logger.error("Failed to update whitelist entry for {}", processed, e);
         }
+        publish(actor, change(WhitelistChange.Type.EXTENDED, old, updated));
         return true;
     }
 
-    private boolean addPlayerInternal(String playerName, Long expiresAtMillis) {
+    // Adds the duration to every given entry with a single flush for the whole batch. Entries changed since
+    // the caller looked them up are left alone. Returns the entries as updated.
+    public List<WhitelistEntry> extendPlayers(String actor, Collection<WhitelistEntry> targets, Duration duration) {
+        WhitelistProfile profile = active;
+        long millis = duration.toMillis();
+        List<WhitelistEntry> updated = profile.index().updateAll(targets.stream().filter(WhitelistEntry::hasExpiry).toList(),
+                entry -> entry.withExpiresAtMillis(entry.expiresAtMillis() + millis));
+        if (updated.isEmpty()) {
+            return updated;
+        }
+        for (WhitelistEntry entry : updated) {
+            auditLog.record(actor, AuditEvent.Action.EXTEND, entry.getOriginalName(),
+                    entry.expiresAtMillis() - millis, entry.expiresAtMillis(), "bulk");
+        }
+        try {
+            profile.flush();
+        } catch (Exception e) {
+            logger.error("Failed to save {} extended whitelist entries", updated.size(), e);
+        }
+        publish(WhitelistChangeEvent.Cause.COMMAND, actor, updated.stream()
+                .map(entry -> change(WhitelistChange.Type.EXTENDED, entry.withExpiresAtMillis(entry.expiresAtMillis() - millis), entry))
+                .toList());
+        return updated;
+    }
+
+    public boolean updatePlayerServers(String actor, String playerName, long serverGroups) {
+        WhitelistProfile profile = active;
         String processed = playerName.trim();
         if (processed.isEmpty()) return false;
+        String canonical = canonical(processed);
+        WhitelistEntry old = profile.index().get(canonical);
+        if (old == null) {
+            return false;
+        }
+        if (old.getServerGroups() == serverGroups) {
+            return true;
+        }
+        WhitelistEntry updated = old.withServerGroups(serverGroups);
+        profile.index().put(updated);
+        auditLog.record(actor, AuditEvent.Action.SERVERS, old.getOriginalName(), AuditEvent.NONE, AuditEvent.NONE,
+                this.serverGroups.format(old.getServerGroups()) + " -> " + this.serverGroups.format(serverGroups));
+        try {
+            profile.flush();
+        } catch (Exception e) {
+            logger.error("Failed to update server groups for {}", processed, e);
+        }
+        publish(actor, change(WhitelistChange.Type.UPDATED, old, updated));
+        return true;
+    }
 
+    // Null clears the schedule.
+    public boolean updatePlayerSchedule(String actor, String playerName, AccessSchedule schedule) {
+        WhitelistProfile profile = active;
+        String processed = playerName.trim();
+        if (processed.isEmpty()) return false;
         String canonical = canonical(processed);
-        WhitelistEntry newEntry = new WhitelistEntry(canonical, processed, expiresAtMillis);
-        WhitelistEntry old = whitelistedPlayers.putIfAbsent(canonical, newEntry);
+        WhitelistEntry old = profile.index().get(canonical);
         if (old == null) {
-            try {
-                if (storage != null) {
-                    storage.flush(whitelistedPlayers);
+            return false;
+        }
+        if (old.getSchedule() == schedule) {
+            return true;
+        }
+        WhitelistEntry updated = old.withSchedule(schedule);
+        profile.index().put(updated);
+        auditLog.record(actor, AuditEvent.Action.SCHEDULE, old.getOriginalName(), AuditEvent.NONE, AuditEvent.NONE,
+                scheduleName(old.getSchedule()) + " -> " + scheduleName(schedule));
+        try {
+            profile.flush();
+        } catch (Exception e) {
+            logger.error("Failed to update the schedule for {}", processed, e);
+        }
+        publish(actor, change(WhitelistChange.Type.UPDATED, old, updated));
+        if (config.isKickActiveOnRevoke()) {
+            server.getPlayer(processed).ifPresent(player -> {
+                if (!bypassCache.hasBypass(player) && !isAllowed(player)) {
+                    player.disconnect(localeManager.getMessage("kick-window-closed"));
+                    logger.info("Kicked player {} because their new schedule is closed.", player.getUsername());
                 }
+            });
+        }
+        return true;
+    }
+
+    private static String scheduleName(AccessSchedule schedule) {
+        return schedule == null ? "none" : schedule.name();
+    }
+
+    private boolean addPlayerInternal(String actor, String playerName, Long expiresAtMillis, long serverGroups) {
+        WhitelistProfile profile = active;
+        String processed = playerName.trim();
+        if (processed.isEmpty()) return false;
+
+        String canonical = canonical(processed);
+        WhitelistEntry newEntry = new WhitelistEntry(canonical, processed, expiresAtMillis, serverGroups, null,
+                uuidResolver.getCached(processed).orElse(null));
+        WhitelistEntry old = profile.index().putIfAbsent(newEntry);
+        if (old == null) {
+            auditLog.record(actor, AuditEvent.Action.ADD, processed, AuditEvent.NONE, newEntry.expiresAtMillis(),
+                    serverGroups == 0L ? null : this.serverGroups.format(serverGroups));
+            try {
+                profile.flush();
             } catch (Exception e) {
                 logger.error("Failed to persist whitelist entry for {}", processed, e);
             }
+            requestMissingUuids(List.of(newEntry));
+            publish(actor, change(WhitelistChange.Type.ADDED, null, newEntry));
             return true;
         } else {
+            WhitelistEntry updated = old;
             if (!Objects.equals(old.getExpiresAtMillis(), expiresAtMillis) && expiresAtMillis != null) {
-                whitelistedPlayers.put(canonical, newEntry);
+                updated = updated.withExpiresAtMillis(expiresAtMillis);
+            }
+            if (serverGroups != 0L && old.getServerGroups() != serverGroups) {
+                updated = updated.withServerGroups(serverGroups);
+            }
+            if (updated != old) {
+                profile.index().put(updated);
+                auditLog.record(actor, AuditEvent.Action.UPDATE, old.getOriginalName(), old.expiresAtMillis(),
+                        updated.expiresAtMillis(), this.serverGroups.format(updated.getServerGroups()));
                 try {
-                    if (storage != null) {
-                        storage.flush(whitelistedPlayers);
-                    }
+                    profile.flush();
                 } catch (Exception e) {
                     logger.error("Failed to update whitelist entry for {}", processed, e);
                 }
+                publish(actor, change(WhitelistChange.Type.UPDATED, old, updated));
             }
             return false;
         }
     }
 
-    public boolean removePlayer(String playerName) {
+    public boolean removePlayer(String actor, String playerName) {
+        WhitelistProfile profile = active;
         String processed = playerName.trim();
         String canonical = canonical(processed);
 
-        WhitelistEntry removed = whitelistedPlayers.remove(canonical);
+        WhitelistEntry removed = profile.index().remove(canonical);
         if (removed != null) {
+            auditLog.record(actor, AuditEvent.Action.REMOVE, removed.getOriginalName(), removed.expiresAtMillis(), AuditEvent.NONE, null);
             try {
-                if (storage != null) {
-                    storage.flush(whitelistedPlayers);
-                }
+                profile.flush();
             } catch (Exception e) {
                 logger.error("Failed to persist whitelist removal for {}", processed, e);
             }
+            publish(actor, change(WhitelistChange.Type.REMOVED, removed, null));
+            if (removed.isPattern()) {
+                if (config.isKickActiveOnRevoke()) {
+                    checkAndKickNonWhitelistedPlayers();
+                }
+                return true;
+            }
             server.getPlayer(processed).ifPresent(player -> {
-                if (config.isKickActiveOnRevoke() && !player.hasPermission(Permissions.BYPASS)) {
+                if (config.isKickActiveOnRevoke() && !bypassCache.hasBypass(player) && !isAllowed(player)) {
                     player.disconnect(localeManager.getMessage("kick-message"));
                     logger.info("Kicked player {} because they were removed from the whitelist.", player.getUsername());
                 }
@@ -273,25 +1247,88 @@ public class Yawl {
         return false;
     }
 
-    private void removeExpiredEntriesAndMaybeKick(boolean kickActive) {
+    // Returns how many players were kicked.
+    private int removeExpiredEntriesAndMaybeKick(boolean kickActive) {
         if (!kickActive || !config.isEnabled()) {
-            return;
+            return 0;
         }
-        for (WhitelistEntry value : whitelistedPlayers.values()) {
-            if (value.isExpired()) {
-                server.getPlayer(value.getOriginalName()).ifPresent(player -> {
-                    if (!player.hasPermission(Permissions.BYPASS)) {
-                        player.disconnect(localeManager.getMessage("kick-message"));
-                        logger.info("Kicked player {} because their whitelist access expired.", player.getUsername());
-                    }
-                });
+        boolean patternExpired = false;
+        int kicked = 0;
+        long now = System.currentTimeMillis();
+        for (WhitelistEntry value : active.index().entries()) {
+            if (value.isExpired(now) && value.isPattern()) {
+                patternExpired = true;
+            } else if (value.isExpired(now)) {
+                Optional<Player> online = server.getPlayer(value.getOriginalName());
+                if (online.isPresent() && kickExpired(online.get())) {
+                    kicked++;
+                }
+            }
+        }
+        if (patternExpired) {
+            for (Player player : server.getAllPlayers()) {
+                if (kickExpired(player)) {
+                    kicked++;
+                }
             }
         }
+        return kicked;
+    }
+
+    private boolean kickExpired(Player player) {
+        if (bypassCache.hasBypass(player) || isAllowed(player)) {
+            return false;
+        }
+        player.disconnect(localeManager.getMessage("kick-message"));
+        logger.info("Kicked player {} because their whitelist access expired.", player.getUsername());
+        return true;
+    }
+
+    // Announces every entry whose expiry passed since the previous sweep, in one event, and returns how many.
+    private int publishExpired() {
+        long now = System.currentTimeMillis();
+        long since = expiryCursorMillis;
+        expiryCursorMillis = now;
+        List<WhitelistChange> expired = active.index().expiring(since, now).stream()
+                .map(entry -> change(WhitelistChange.Type.EXPIRED, entry, entry))
+                .toList();
+        publish(WhitelistChangeEvent.Cause.EXPIRY, AuditLog.SYSTEM, expired);
+        return expired.size();
+    }
+
+    private void publish(String actor, WhitelistChange change) {
+        publish(WhitelistChangeEvent.Cause.COMMAND, actor, List.of(change));
+    }
+
+    // Velocity runs the listeners on its event executor, so the caller does not wait for them.
+    private void publish(WhitelistChangeEvent.Cause cause, String actor, List<WhitelistChange> changes) {
+        if (!changes.isEmpty()) {
+            server.getEventManager().fireAndForget(new WhitelistChangeEvent(cause, actor, changes));
+        }
+    }
+
+    private WhitelistChange change(WhitelistChange.Type type, WhitelistEntry before, WhitelistEntry after) {
+        String name = (after != null ? after : before).getOriginalName();
+        return new WhitelistChange(type, name, before == null ? null : snapshot(before), after == null ? null : snapshot(after));
+    }
+
+    org.renwixx.yawl.api.WhitelistEntry snapshot(WhitelistEntry entry) {
+        Instant expiresAt = entry.hasExpiry() ? Instant.ofEpochMilli(entry.expiresAtMillis()) : null;
+        return new org.renwixx.yawl.api.WhitelistEntry(entry.getOriginalName(), expiresAt, serverGroups.namesOf(entry.getServerGroups()));
     }
 
     public VelocityToBackendBridge getVelocityToBackendBridge() { return velocityToBackendBridge; }
     public LocaleManager getLocaleManager() { return localeManager; }
+    public ServerGroupRegistry getServerGroups() { return serverGroups; }
+    public ScheduleRegistry getSchedules() { return schedules; }
+    public AuditLog getAuditLog() { return auditLog; }
+    public BypassCache getBypassCache() { return bypassCache; }
+    public RecentDenials getRecentDenials() { return recentDenials; }
+    public UuidResolver getUuidResolver() { return uuidResolver; }
+    public LookupCache<String, WhitelistEntry> getArchiveLookups() { return archiveLookups; }
     public boolean shouldUseClientLocale() { return useClientLocale; }
+    public boolean isReady() { return ready; }
+    public CompletableFuture<Void> getStartup() { return startup; }
     public PluginConfig getConfig() { return config; }
     public Logger getLogger() { return logger; }
     public ProxyServer getServer() { return server; }
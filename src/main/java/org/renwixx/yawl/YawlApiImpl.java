@@ -0,0 +1,93 @@
+package org.renwixx.yawl;
+
+import org.renwixx.yawl.api.WhitelistEntry;
+import org.renwixx.yawl.api.YawlApi;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// YawlApi backed by the plugin. Reads go straight to the lock-free index used for logins; writes run on
+// the Velocity scheduler because they flush whitelist.txt and may kick players.
+final class YawlApiImpl implements YawlApi {
+    private final Yawl plugin;
+    private final Executor executor;
+
+    YawlApiImpl(Yawl plugin) {
+        this.plugin = plugin;
+        this.executor = task -> plugin.getServer().getScheduler().buildTask(plugin, task).schedule();
+    }
+
+    @Override
+    public boolean isReady() {
+        return plugin.isReady();
+    }
+
+    @Override
+    public boolean isWhitelisted(String name) {
+        return plugin.isWhitelisted(name);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isWhitelisted(UUID uniqueId) {
+        return CompletableFuture.completedFuture(plugin.isWhitelisted(uniqueId));
+    }
+
+    @Override
+    public Map<String, Boolean> checkAll(Collection<String> names) {
+        return plugin.checkAll(names);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Boolean>> checkAllById(Collection<UUID> uniqueIds) {
+        return CompletableFuture.completedFuture(plugin.checkAllById(uniqueIds));
+    }
+
+    @Override
+    public Optional<WhitelistEntry> getEntry(String name) {
+        return plugin.getEntry(name).map(plugin::snapshot);
+    }
+
+    @Override
+    public Optional<WhitelistEntry> findMatchingEntry(String name) {
+        return plugin.getEffectiveEntry(name).filter(entry -> !entry.isExpired()).map(plugin::snapshot);
+    }
+
+    @Override
+    public List<WhitelistEntry> getExpiring(Duration within, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative");
+        }
+        return plugin.getExpiring(within).stream().skip(offset).limit(limit).map(plugin::snapshot).toList();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> add(String name, Duration duration, String actor) {
+        return CompletableFuture.supplyAsync(() -> notifyAfter(name, plugin.addPlayer(actor, name, duration)), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setExpiry(String name, Instant expiresAt, String actor) {
+        Long millis = expiresAt == null ? null : expiresAt.toEpochMilli();
+        return CompletableFuture.supplyAsync(() -> notifyAfter(name, plugin.updatePlayerExpiry(actor, name, millis)), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> remove(String name, String actor) {
+        return CompletableFuture.supplyAsync(() -> notifyAfter(name, plugin.removePlayer(actor, name)), executor);
+    }
+
+    private boolean notifyAfter(String name, boolean changed) {
+        VelocityToBackendBridge bridge = plugin.getVelocityToBackendBridge();
+        if (changed && bridge != null) {
+            plugin.getServer().getPlayer(name.trim()).ifPresent(bridge::sendWhitelistUpdate);
+        }
+        return changed;
+    }
+}
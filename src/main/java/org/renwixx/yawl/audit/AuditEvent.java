@@ -0,0 +1,68 @@
+package org.renwixx.yawl.audit;
+
+import java.time.Instant;
+import java.util.Optional;
+
+// One line of the audit log. Expiry fields use NONE when they do not apply to the action and
+// PERMANENT for entries that never expire, matching WhitelistEntry.expiresAtMillis().
+public record AuditEvent(long timestamp, String actor, Action action, String target,
+                         long oldExpiry, long newExpiry, String detail) {
+    public static final long NONE = -1L;
+    public static final long PERMANENT = Long.MAX_VALUE;
+
+    public enum Action {
+        ADD, UPDATE, EXTEND, SERVERS, SCHEDULE, REMOVE, ARCHIVE, RESTORE, NETWORK_ADD, NETWORK_REMOVE, PROFILE, DENY_LOGIN, DENY_NETWORK, DENY_SERVER;
+
+        public boolean isDenial() {
+            return this == DENY_LOGIN || this == DENY_NETWORK || this == DENY_SERVER;
+        }
+    }
+
+    // Tab-separated: time, actor, action, target, old expiry, new expiry, detail.
+    public String toLine() {
+        return Instant.ofEpochMilli(timestamp) + "\t" + clean(actor) + "\t" + action + "\t" + clean(target)
+                + "\t" + formatExpiry(oldExpiry) + "\t" + formatExpiry(newExpiry) + "\t" + clean(detail);
+    }
+
+    public static Optional<AuditEvent> parse(String line) {
+        String[] parts = line.split("\t", -1);
+        if (parts.length != 7) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new AuditEvent(Instant.parse(parts[0]).toEpochMilli(), parts[1],
+                    Action.valueOf(parts[2]), parts[3], parseExpiry(parts[4]), parseExpiry(parts[5]), parts[6]));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    // Reads the target column in place so non-matching lines are skipped without splitting them.
+    static boolean targetMatches(String line, String target, boolean caseSensitive) {
+        int start = 0;
+        for (int column = 0; column < 3; column++) {
+            start = line.indexOf('\t', start) + 1;
+            if (start == 0) return false;
+        }
+        int end = line.indexOf('\t', start);
+        if (end < 0 || end - start != target.length()) return false;
+        return line.regionMatches(!caseSensitive, start, target, 0, target.length());
+    }
+
+    private static String formatExpiry(long millis) {
+        if (millis == NONE) return "";
+        if (millis == PERMANENT) return "permanent";
+        return Instant.ofEpochMilli(millis).toString();
+    }
+
+    private static long parseExpiry(String value) {
+        if (value.isEmpty()) return NONE;
+        if (value.equals("permanent")) return PERMANENT;
+        return Instant.parse(value).toEpochMilli();
+    }
+
+    private static String clean(String value) {
+        if (value == null) return "";
+        return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
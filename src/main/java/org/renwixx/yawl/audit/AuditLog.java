@@ -0,0 +1,268 @@
+package org.renwixx.yawl.audit;
+
+import org.renwixx.yawl.PluginConfig;
+import org.renwixx.yawl.util.RingBuffer;
+import org.slf4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Records whitelist changes and denials. Callers only enqueue into a lock-free ring buffer; a single
+// background thread writes the events to 'audit/audit.log' and rotates it into timestamped segments
+// (optionally gzipped) by size and age, so logins and commands never wait on the disk.
+public final class AuditLog {
+    public static final String CONSOLE = "console";
+    public static final String SYSTEM = "system";
+    public static final String FILE = "file";
+
+    private static final String CURRENT = "audit.log";
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final DateTimeFormatter SEGMENT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Path directory;
+    private final Path currentFile;
+    private final Logger logger;
+    private final RingBuffer<AuditEvent> buffer;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean enabled;
+    private volatile long maxFileBytes;
+    private volatile long rotateMillis;
+    private volatile boolean compress;
+    private volatile int maxFiles;
+    private volatile boolean running;
+    private Thread writer;
+
+    // Writer thread state.
+    private OutputStream out;
+    private long currentSize;
+    private long openedAt;
+
+    public AuditLog(Path dataDirectory, int bufferSize, Logger logger) {
+        this.directory = dataDirectory.resolve("audit");
+        this.currentFile = directory.resolve(CURRENT);
+        this.logger = logger;
+        this.buffer = new RingBuffer<>(bufferSize);
+    }
+
+    public void configure(PluginConfig config) {
+        this.maxFileBytes = config.getAuditMaxFileBytes();
+        this.rotateMillis = config.getAuditRotateInterval().toMillis();
+        this.compress = config.isAuditCompress();
+        this.maxFiles = config.getAuditMaxFiles();
+        this.enabled = config.isAuditEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void start() {
+        running = true;
+        writer = new Thread(this::run, "yawl-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public void record(String actor, AuditEvent.Action action, String target, long oldExpiry, long newExpiry, String detail) {
+        if (!enabled) {
+            return;
+        }
+        AuditEvent event = new AuditEvent(System.currentTimeMillis(), actor, action, target, oldExpiry, newExpiry, detail);
+        if (!buffer.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    // Newest first. Reads the current file and then older segments until enough events are found.
+    public List<AuditEvent> history(String target, int limit, boolean caseSensitive) throws IOException {
+        List<AuditEvent> result = new ArrayList<>();
+        for (Path file : filesNewestFirst()) {
+            List<AuditEvent> matches = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(file), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (AuditEvent.targetMatches(line, target, caseSensitive)) {
+                        AuditEvent.parse(line).ifPresent(matches::add);
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // Rotated or pruned while we were reading.
+                continue;
+            }
+            Collections.reverse(matches);
+            for (AuditEvent event : matches) {
+                result.add(event);
+                if (result.size() >= limit) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<Path> filesNewestFirst() throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.exists(currentFile)) {
+            files.add(currentFile);
+        }
+        files.addAll(segmentsNewestFirst());
+        return files;
+    }
+
+    private List<Path> segmentsNewestFirst() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> stream = Files.list(directory)) {
+            // Segment names embed the rotation time, so name order is age order.
+            return stream.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && !name.endsWith(".tmp");
+                    })
+                    .sorted(Collections.reverseOrder())
+                    .toList();
+        }
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in) : in;
+    }
+
+    private void run() {
+        while (true) {
+            boolean stopping = !running;
+            try {
+                int written = buffer.drain(this::write);
+                if (written > 0 && out != null) {
+                    out.flush();
+                }
+                reportDropped();
+                if (out != null && System.currentTimeMillis() - openedAt >= rotateMillis) {
+                    rotate();
+                }
+            } catch (IOException e) {
+                logger.error("Failed to write the audit log", e);
+                closeQuietly();
+            }
+            if (stopping) {
+                break;
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        closeQuietly();
+    }
+
+    private void write(AuditEvent event) {
+        try {
+            if (out == null) {
+                openCurrent();
+            }
+            byte[] line = (event.toLine() + "\n").getBytes(StandardCharsets.UTF_8);
+            out.write(line);
+            currentSize += line.length;
+            if (currentSize >= maxFileBytes) {
+                rotate();
+            }
+        } catch (IOException e) {
+            logger.error("Failed to write audit event {} for {}", event.action(), event.target(), e);
+            closeQuietly();
+        }
+    }
+
+    private void openCurrent() throws IOException {
+        Files.createDirectories(directory);
+        if (Files.exists(currentFile)) {
+            BasicFileAttributes attributes = Files.readAttributes(currentFile, BasicFileAttributes.class);
+            currentSize = attributes.size();
+            openedAt = attributes.creationTime().toMillis();
+        } else {
+            currentSize = 0;
+            openedAt = System.currentTimeMillis();
+        }
+        out = new BufferedOutputStream(Files.newOutputStream(currentFile,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE));
+    }
+
+    private void rotate() throws IOException {
+        closeQuietly();
+        if (!Files.exists(currentFile) || Files.size(currentFile) == 0) {
+            return;
+        }
+        String name = SEGMENT_PREFIX + SEGMENT_TIME.format(Instant.now()) + ".log";
+        if (compress) {
+            Path target = directory.resolve(name + ".gz");
+            Path tmp = directory.resolve(name + ".gz.tmp");
+            try (InputStream in = Files.newInputStream(currentFile);
+                 OutputStream gz = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+                in.transferTo(gz);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(currentFile);
+        } else {
+            Files.move(currentFile, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+        }
+        prune();
+    }
+
+    private void prune() throws IOException {
+        List<Path> segments = segmentsNewestFirst();
+        for (int i = maxFiles; i < segments.size(); i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private void reportDropped() {
+        long count = dropped.getAndSet(0);
+        if (count > 0) {
+            logger.warn("Audit buffer was full, {} events were not recorded.", count);
+        }
+    }
+
+    private void closeQuietly() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException ignored) {}
+        out = null;
+    }
+}
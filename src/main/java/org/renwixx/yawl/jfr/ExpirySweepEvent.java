@@ -0,0 +1,27 @@
+package org.renwixx.yawl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.renwixx.yawl.ExpirySweep")
+@Label("Expiry Sweep")
+@Category("YAWL")
+@Description("Periodic pass that announces expired entries and kicks their players")
+@Enabled(false)
+@StackTrace(false)
+public final class ExpirySweepEvent extends Event {
+    // Zero when kick-active-on-revoke is off and only the expiry index was read.
+    @Label("Entries Scanned")
+    public int scanned;
+
+    @Label("Entries Expired")
+    public int expired;
+
+    @Label("Players Kicked")
+    public int kicked;
+}
@@ -0,0 +1,26 @@
+package org.renwixx.yawl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.renwixx.yawl.LocaleLoad")
+@Label("Locale Load")
+@Category("YAWL")
+@Description("Parsing and compiling the messages of one locale file")
+@Enabled(false)
+@StackTrace(false)
+public final class LocaleLoadEvent extends Event {
+    @Label("Locale")
+    public String locale;
+
+    @Label("Messages")
+    public int messages;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,24 @@
+package org.renwixx.yawl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.renwixx.yawl.LoginDecision")
+@Label("Login Decision")
+@Category("YAWL")
+@Description("Whitelist check of a joining player")
+@Enabled(false)
+@StackTrace(false)
+public final class LoginDecisionEvent extends Event {
+    @Label("Player")
+    public String player;
+
+    // allowed, bypass, denied, denied-loading, passed-network or denied-network.
+    @Label("Result")
+    public String result;
+}
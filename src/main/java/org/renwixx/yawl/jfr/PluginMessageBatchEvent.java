@@ -0,0 +1,29 @@
+package org.renwixx.yawl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.renwixx.yawl.PluginMessageBatch")
+@Label("Plugin Message Batch")
+@Category("YAWL")
+@Description("Placeholder data sent to the backend servers of many players at once")
+@Enabled(false)
+@StackTrace(false)
+public final class PluginMessageBatchEvent extends Event {
+    @Label("Players")
+    public int players;
+
+    // Players connected to no backend server are skipped.
+    @Label("Messages")
+    public int messages;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,21 @@
+package org.renwixx.yawl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.renwixx.yawl.ReloadPhase")
+@Label("Reload Phase")
+@Category("YAWL")
+@Description("One phase of loading the plugin on startup or /yawl reload")
+@Enabled(false)
+@StackTrace(false)
+public final class ReloadPhaseEvent extends Event {
+    // config, locales, whitelist, networks or apply.
+    @Label("Phase")
+    public String phase;
+}
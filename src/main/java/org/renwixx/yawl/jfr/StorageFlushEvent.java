@@ -0,0 +1,28 @@
+package org.renwixx.yawl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.renwixx.yawl.StorageFlush")
+@Label("Storage Flush")
+@Category("YAWL")
+@Description("Rewrite of a whitelist or network file")
+@Enabled(false)
+@StackTrace(false)
+public final class StorageFlushEvent extends Event {
+    @Label("File")
+    public String file;
+
+    @Label("Entries")
+    public int entries;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
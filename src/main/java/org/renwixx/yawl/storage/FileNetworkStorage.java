@@ -0,0 +1,63 @@
+package org.renwixx.yawl.storage;
+
+import org.renwixx.yawl.util.AddressRangeTree;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class FileNetworkStorage {
+    private final Path filePath;
+    private final Path dataDirectory;
+    private final Logger logger;
+    private final TrackedFile trackedFile;
+
+    public FileNetworkStorage(Path filePath, Path dataDirectory, Logger logger) {
+        this.filePath = filePath;
+        this.trackedFile = new TrackedFile(filePath);
+        this.dataDirectory = dataDirectory;
+        this.logger = logger;
+    }
+
+    public void init() throws IOException {
+        if (!Files.exists(filePath)) {
+            Files.createDirectories(dataDirectory);
+            List<String> defaults = List.of(
+                    "# Add one IPv4 or IPv6 range per line in CIDR notation, e.g. '192.168.0.0/16' or '2001:db8::/32'",
+                    "# How these ranges combine with the name whitelist is set by 'network.mode' in config.toml"
+            );
+            Files.write(filePath, defaults);
+        }
+    }
+
+    public Map<String, AddressRangeTree.Range> loadAll() throws IOException {
+        trackedFile.remember();
+        List<String> lines = Files.readAllLines(filePath);
+        Map<String, AddressRangeTree.Range> map = new LinkedHashMap<>();
+        for (String raw : lines) {
+            String line = raw.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            Optional<AddressRangeTree.Range> range = AddressRangeTree.Range.parse(line);
+            if (range.isEmpty()) {
+                logger.warn("Invalid network range '{}' in {}, ignoring it.", line, filePath.getFileName());
+                continue;
+            }
+            map.put(range.get().text(), range.get());
+        }
+        logger.info("Loaded {} network ranges from {}", map.size(), filePath.getFileName());
+        return map;
+    }
+
+    public void flush(Collection<AddressRangeTree.Range> ranges) throws IOException {
+        trackedFile.replace(ranges.stream()
+                .map(AddressRangeTree.Range::text)
+                .sorted()
+                .toList());
+    }
+
+    public boolean isUnchangedSinceLastAccess() {
+        return trackedFile.isUnchanged();
+    }
+}
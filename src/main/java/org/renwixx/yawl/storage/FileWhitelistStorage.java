@@ -1,11 +1,13 @@
 package org.renwixx.yawl.storage;
 
+import org.renwixx.yawl.ScheduleRegistry;
+import org.renwixx.yawl.ServerGroupRegistry;
+import org.renwixx.yawl.util.AccessSchedule;
 import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -13,10 +15,17 @@ public class FileWhitelistStorage {
     private final Path filePath;
     private final Path dataDirectory;
     private final Logger logger;
+    private final TrackedFile trackedFile;
+    private final ServerGroupRegistry serverGroups;
+    private final ScheduleRegistry schedules;
 
-    public FileWhitelistStorage(Path filePath, Path dataDirectory, Logger logger) {
+    public FileWhitelistStorage(Path filePath, Path dataDirectory, ServerGroupRegistry serverGroups,
+                                ScheduleRegistry schedules, Logger logger) {
         this.filePath = filePath;
+        this.trackedFile = new TrackedFile(filePath);
         this.dataDirectory = dataDirectory;
+        this.serverGroups = serverGroups;
+        this.schedules = schedules;
         this.logger = logger;
     }
 
@@ -25,6 +34,10 @@ public class FileWhitelistStorage {
             Files.createDirectories(dataDirectory);
             List<String> defaults = List.of(
                     "# Add one player per line; optionally use 'name|expiresAtMillis' for timed access",
+                    "# and 'name|expiresAtMillis|servers=group1,group2' to limit access to server groups",
+                    "# and 'name|expiresAtMillis|schedule=name' to limit access to a schedule from config.toml",
+                    "# 'uuid=...' is filled in by YAWL once the name has been resolved to an account",
+                    "# Names may use '*' and '?' wildcards, e.g. 'event_team3_*', to match many players at once",
                     "Player1"
             );
             Files.write(filePath, defaults);
@@ -32,46 +45,87 @@ public class FileWhitelistStorage {
     }
 
     public Map<String, WhitelistEntry> loadAll() throws IOException {
+        if (!Files.exists(filePath)) {
+            return new HashMap<>();
+        }
+        trackedFile.remember();
         List<String> lines = Files.readAllLines(filePath);
         Map<String, WhitelistEntry> map = new HashMap<>();
         for (String raw : lines) {
             String line = raw.trim();
             if (line.isEmpty() || line.startsWith("#")) continue;
-            String name;
+            String[] parts = line.split("\\|");
+            String name = parts[0].trim();
             Long expires = null;
-            if (line.contains("|")) {
-                String[] parts = line.split("\\|", 2);
-                name = parts[0].trim();
+            long groups = 0L;
+            AccessSchedule schedule = null;
+            UUID uuid = null;
+            if (parts.length > 1) {
                 try {
                     expires = parts[1].trim().isEmpty() ? null : Long.parseLong(parts[1].trim());
                 } catch (NumberFormatException e) {
                     logger.warn("Invalid expiresAt in whitelist line '{}', ignoring expiry.", line);
                 }
-            } else {
-                name = line;
+            }
+            for (int i = 2; i < parts.length; i++) {
+                String attribute = parts[i].trim();
+                if (attribute.startsWith("servers=")) {
+                    groups = serverGroups.parseStored(attribute.substring("servers=".length()));
+                } else if (attribute.startsWith("schedule=")) {
+                    schedule = schedules.parseStored(attribute.substring("schedule=".length()));
+                } else if (attribute.startsWith("uuid=")) {
+                    try {
+                        uuid = UUID.fromString(attribute.substring("uuid=".length()).trim());
+                    } catch (IllegalArgumentException e) {
+                        logger.warn("Invalid uuid in whitelist line '{}', it will be resolved again.", line);
+                    }
+                } else if (!attribute.isEmpty()) {
+                    logger.warn("Unknown attribute '{}' in whitelist line '{}', ignoring it.", attribute, line);
+                }
             }
             if (!name.isEmpty()) {
-                map.put(name, new WhitelistEntry(name, name, expires));
+                map.put(name, new WhitelistEntry(name, name, expires, groups, schedule, uuid));
             }
         }
-        logger.info("Loaded {} players from whitelist.txt", map.size());
+        logger.info("Loaded {} players from {}", map.size(), filePath.getFileName());
         return map;
     }
 
-    public void flush(Map<String, WhitelistEntry> entries) throws IOException {
-        Path tempFile = filePath.resolveSibling(filePath.getFileName().toString() + ".tmp");
-        try {
-            List<String> lines = entries.values().stream()
-                    .sorted(Comparator.comparing(WhitelistEntry::getOriginalName, String.CASE_INSENSITIVE_ORDER))
-                    .map(e -> e.getOriginalName() + (e.getExpiresAtMillis() != null ? "|" + e.getExpiresAtMillis() : ""))
-                    .collect(Collectors.toList());
-            Files.write(tempFile, lines);
-            Files.move(tempFile, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
-        } catch (IOException e) {
-            try {
-                Files.deleteIfExists(tempFile);
-            } catch (IOException ignored) {}
-            throw e;
+    public void flush(Collection<WhitelistEntry> entries) throws IOException {
+        trackedFile.replace(entries.stream()
+                .sorted(Comparator.comparing(WhitelistEntry::getOriginalName, String.CASE_INSENSITIVE_ORDER))
+                .map(this::formatLine)
+                .collect(Collectors.toList()));
+    }
+
+    // Adds lines to the end of the file without rewriting it, creating the file when needed.
+    public void append(Collection<WhitelistEntry> entries) throws IOException {
+        Files.createDirectories(dataDirectory);
+        trackedFile.append(entries.stream().map(this::formatLine).collect(Collectors.toList()));
+    }
+
+    private String formatLine(WhitelistEntry entry) {
+        StringBuilder line = new StringBuilder(entry.getOriginalName());
+        if (entry.getExpiresAtMillis() != null || entry.getServerGroups() != 0L || entry.getSchedule() != null
+                || entry.getUuid() != null) {
+            line.append('|');
+            if (entry.getExpiresAtMillis() != null) {
+                line.append(entry.getExpiresAtMillis());
+            }
+        }
+        if (entry.getServerGroups() != 0L) {
+            line.append("|servers=").append(serverGroups.format(entry.getServerGroups()));
+        }
+        if (entry.getSchedule() != null) {
+            line.append("|schedule=").append(entry.getSchedule().name());
         }
+        if (entry.getUuid() != null) {
+            line.append("|uuid=").append(entry.getUuid());
+        }
+        return line.toString();
+    }
+
+    public boolean isUnchangedSinceLastAccess() {
+        return trackedFile.isUnchanged();
     }
 }
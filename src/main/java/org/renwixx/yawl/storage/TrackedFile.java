@@ -0,0 +1,72 @@
+package org.renwixx.yawl.storage;
+
+import org.renwixx.yawl.jfr.StorageFlushEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+// A storage file together with its size and modification time as of our last read or write, so the
+// file watcher can tell our own writes from edits made by hand.
+final class TrackedFile {
+    private final Path path;
+    private volatile FileTime lastKnownModified;
+    private volatile long lastKnownSize = -1;
+
+    TrackedFile(Path path) {
+        this.path = path;
+    }
+
+    // Writes a temporary file next to the original and moves it over in one step, so a crash never
+    // leaves a half-written file behind.
+    void replace(List<String> lines) throws IOException {
+        Path tempFile = path.resolveSibling(path.getFileName().toString() + ".tmp");
+        StorageFlushEvent event = new StorageFlushEvent();
+        event.begin();
+        try {
+            Files.write(tempFile, lines);
+            Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            remember();
+            event.end();
+            if (event.shouldCommit()) {
+                event.file = path.getFileName().toString();
+                event.entries = lines.size();
+                event.bytes = lastKnownSize;
+                event.commit();
+            }
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ignored) {}
+            throw e;
+        }
+    }
+
+    void append(List<String> lines) throws IOException {
+        Files.write(path, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        remember();
+    }
+
+    // True when the file still looks exactly like our last read or write, e.g. for watcher events
+    // caused by our own flush.
+    boolean isUnchanged() {
+        try {
+            return Files.size(path) == lastKnownSize && Files.getLastModifiedTime(path).equals(lastKnownModified);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    void remember() {
+        try {
+            lastKnownModified = Files.getLastModifiedTime(path);
+            lastKnownSize = Files.size(path);
+        } catch (IOException e) {
+            lastKnownSize = -1;
+        }
+    }
+}
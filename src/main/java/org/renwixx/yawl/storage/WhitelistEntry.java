@@ -1,17 +1,42 @@
 package org.renwixx.yawl.storage;
 
-import java.time.Instant;
+import org.renwixx.yawl.ServerGroupRegistry;
+import org.renwixx.yawl.util.AccessSchedule;
+import org.renwixx.yawl.util.PatternMatcher;
+
 import java.util.Objects;
+import java.util.UUID;
 
 public final class WhitelistEntry {
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+
     private final String canonicalName;
     private final String originalName;
-    private final Long expiresAtMillis;
+    private final long expiresAtMillis;
+    private final long serverGroups;
+    private final AccessSchedule schedule;
+    private final UUID uuid;
 
     public WhitelistEntry(String canonicalName, String originalName, Long expiresAtMillis) {
+        this(canonicalName, originalName, expiresAtMillis, 0L);
+    }
+
+    public WhitelistEntry(String canonicalName, String originalName, Long expiresAtMillis, long serverGroups) {
+        this(canonicalName, originalName, expiresAtMillis, serverGroups, null);
+    }
+
+    public WhitelistEntry(String canonicalName, String originalName, Long expiresAtMillis, long serverGroups, AccessSchedule schedule) {
+        this(canonicalName, originalName, expiresAtMillis, serverGroups, schedule, null);
+    }
+
+    public WhitelistEntry(String canonicalName, String originalName, Long expiresAtMillis, long serverGroups,
+                          AccessSchedule schedule, UUID uuid) {
         this.canonicalName = Objects.requireNonNull(canonicalName, "canonicalName");
         this.originalName = Objects.requireNonNull(originalName, "originalName");
-        this.expiresAtMillis = expiresAtMillis;
+        this.expiresAtMillis = expiresAtMillis == null ? NO_EXPIRY : expiresAtMillis;
+        this.serverGroups = serverGroups;
+        this.schedule = schedule;
+        this.uuid = uuid;
     }
 
     public String getCanonicalName() {
@@ -23,10 +48,66 @@ public final class WhitelistEntry {
     }
 
     public Long getExpiresAtMillis() {
+        return hasExpiry() ? expiresAtMillis : null;
+    }
+
+    public boolean hasExpiry() {
+        return expiresAtMillis != NO_EXPIRY;
+    }
+
+    // Primitive view of the expiry for hot paths; Long.MAX_VALUE when the entry never expires.
+    public long expiresAtMillis() {
         return expiresAtMillis;
     }
 
+    public long getServerGroups() {
+        return serverGroups;
+    }
+
+    // Null when the entry is not limited to recurring access windows.
+    public AccessSchedule getSchedule() {
+        return schedule;
+    }
+
+    // The account this name belonged to when it was resolved; null until then and for patterns.
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public boolean permits(long requiredGroups) {
+        return ServerGroupRegistry.permits(serverGroups, requiredGroups);
+    }
+
+    public boolean isPattern() {
+        return PatternMatcher.isPattern(originalName);
+    }
+
     public boolean isExpired() {
-        return expiresAtMillis != null && expiresAtMillis <= Instant.now().toEpochMilli();
+        return isExpired(System.currentTimeMillis());
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+
+    // Not expired and, for scheduled entries, inside one of the access windows.
+    public boolean isActive(long nowMillis) {
+        return expiresAtMillis > nowMillis && (schedule == null || schedule.isOpen(nowMillis));
+    }
+
+    public WhitelistEntry withExpiresAtMillis(Long expiresAtMillis) {
+        return new WhitelistEntry(canonicalName, originalName, expiresAtMillis, serverGroups, schedule, uuid);
+    }
+
+    public WhitelistEntry withServerGroups(long serverGroups) {
+        return new WhitelistEntry(canonicalName, originalName, getExpiresAtMillis(), serverGroups, schedule, uuid);
+    }
+
+    public WhitelistEntry withSchedule(AccessSchedule schedule) {
+        return new WhitelistEntry(canonicalName, originalName, getExpiresAtMillis(), serverGroups, schedule, uuid);
+    }
+
+    public WhitelistEntry withUuid(UUID uuid) {
+        return new WhitelistEntry(canonicalName, originalName, getExpiresAtMillis(), serverGroups, schedule, uuid);
     }
 }
@@ -0,0 +1,182 @@
+package org.renwixx.yawl.storage;
+
+import org.renwixx.yawl.util.NameIndex;
+import org.renwixx.yawl.util.PatternMatcher;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.UnaryOperator;
+
+// In-memory whitelist used by every login, connect and placeholder check. Exact names are served from
+// the hash index; wildcard entries are only consulted on a miss. The read path does not allocate.
+// Entries with an expiry are also kept sorted by it, so "who expires next" is a range scan, and entries
+// with a resolved UUID are indexed by it for players the proxy has never seen under their current name.
+public final class WhitelistIndex {
+    private static final Comparator<WhitelistEntry> BY_EXPIRY = Comparator
+            .comparingLong(WhitelistEntry::expiresAtMillis)
+            .thenComparing(WhitelistEntry::getCanonicalName);
+
+    private final NameIndex<WhitelistEntry> entries;
+    private final PatternMatcher patterns;
+    private final NavigableSet<WhitelistEntry> byExpiry = new ConcurrentSkipListSet<>(BY_EXPIRY);
+    private final Map<UUID, WhitelistEntry> byUuid = new ConcurrentHashMap<>();
+
+    public WhitelistIndex(boolean caseSensitive) {
+        this.entries = new NameIndex<>(caseSensitive);
+        this.patterns = new PatternMatcher(caseSensitive);
+    }
+
+    public boolean isWhitelisted(CharSequence name) {
+        return find(name, System.currentTimeMillis(), 0L) != null;
+    }
+
+    // Returns the first active entry for the name that grants one of the required server groups (0 = any).
+    public WhitelistEntry find(CharSequence name, long nowMillis, long requiredGroups) {
+        WhitelistEntry exact = entries.get(name);
+        if (exact != null && exact.isActive(nowMillis) && exact.permits(requiredGroups)) {
+            return exact;
+        }
+        for (String pattern : patterns.match(name)) {
+            WhitelistEntry matched = entries.get(pattern);
+            if (matched != null && matched.isActive(nowMillis) && matched.permits(requiredGroups)) {
+                return matched;
+            }
+        }
+        return null;
+    }
+
+    // Like find, but falls back to the expired exact entry so callers can still show its expiry.
+    public WhitelistEntry findEffective(CharSequence name) {
+        WhitelistEntry active = find(name, System.currentTimeMillis(), 0L);
+        return active != null ? active : entries.get(name);
+    }
+
+    public WhitelistEntry get(CharSequence name) {
+        return entries.get(name);
+    }
+
+    public WhitelistEntry getByUuid(UUID uuid) {
+        return byUuid.get(uuid);
+    }
+
+    // Entries whose expiry lies in (afterMillis, untilMillis], soonest first. The view is live and sorted,
+    // so a page costs one O(log n) seek plus a step per entry skipped or returned.
+    public NavigableSet<WhitelistEntry> expiring(long afterMillis, long untilMillis) {
+        if (untilMillis <= afterMillis) {
+            return Collections.emptyNavigableSet();
+        }
+        return Collections.unmodifiableNavigableSet(byExpiry.subSet(
+                bound(afterMillis), false, bound(untilMillis), true));
+    }
+
+    // Sorts after every real entry with the same expiry, since canonical names never contain U+FFFF.
+    private static WhitelistEntry bound(long millis) {
+        return new WhitelistEntry("\uffff", "", millis);
+    }
+
+    public synchronized WhitelistEntry put(WhitelistEntry entry) {
+        WhitelistEntry previous = entries.put(entry.getCanonicalName(), entry);
+        if (previous == null && entry.isPattern()) {
+            patterns.add(entry.getCanonicalName());
+        }
+        untrack(previous);
+        track(entry);
+        return previous;
+    }
+
+    public synchronized WhitelistEntry putIfAbsent(WhitelistEntry entry) {
+        WhitelistEntry existing = entries.get(entry.getCanonicalName());
+        if (existing != null) return existing;
+        put(entry);
+        return null;
+    }
+
+    public synchronized void putAll(Map<String, WhitelistEntry> batch) {
+        batch.keySet().forEach(name -> untrack(entries.get(name)));
+        entries.putAll(batch);
+        batch.values().forEach(this::track);
+        batch.values().stream().filter(WhitelistEntry::isPattern).forEach(e -> patterns.add(e.getCanonicalName()));
+    }
+
+    public synchronized WhitelistEntry remove(CharSequence name) {
+        WhitelistEntry removed = entries.remove(name);
+        if (removed != null && removed.isPattern()) {
+            patterns.remove(removed.getCanonicalName());
+        }
+        untrack(removed);
+        return removed;
+    }
+
+    // Removes exactly these entry instances; an entry replaced since the caller looked it up is kept.
+    public synchronized List<WhitelistEntry> removeAll(Collection<WhitelistEntry> candidates) {
+        Set<WhitelistEntry> targets = Collections.newSetFromMap(new IdentityHashMap<>());
+        targets.addAll(candidates);
+        List<WhitelistEntry> removed = entries.removeIf(targets::contains);
+        removed.stream().filter(WhitelistEntry::isPattern).forEach(e -> patterns.remove(e.getCanonicalName()));
+        removed.forEach(this::untrack);
+        return removed;
+    }
+
+    // Updates exactly these entry instances with a single table copy; an entry replaced since the caller
+    // looked it up is skipped. Returns the updated entries.
+    public synchronized List<WhitelistEntry> updateAll(Collection<WhitelistEntry> candidates, UnaryOperator<WhitelistEntry> update) {
+        Map<String, WhitelistEntry> batch = new LinkedHashMap<>();
+        for (WhitelistEntry candidate : candidates) {
+            if (entries.get(candidate.getCanonicalName()) == candidate) {
+                batch.put(candidate.getCanonicalName(), update.apply(candidate));
+            }
+        }
+        if (!batch.isEmpty()) {
+            putAll(batch);
+        }
+        return List.copyOf(batch.values());
+    }
+
+    public synchronized void replaceAll(Map<String, WhitelistEntry> loaded) {
+        entries.replaceAll(loaded);
+        patterns.clear();
+        loaded.values().stream().filter(WhitelistEntry::isPattern).forEach(e -> patterns.add(e.getCanonicalName()));
+        byExpiry.clear();
+        byUuid.clear();
+        loaded.values().forEach(this::track);
+    }
+
+    private void track(WhitelistEntry entry) {
+        if (entry.hasExpiry()) {
+            byExpiry.add(entry);
+        }
+        if (entry.getUuid() != null) {
+            byUuid.put(entry.getUuid(), entry);
+        }
+    }
+
+    private void untrack(WhitelistEntry entry) {
+        if (entry == null) {
+            return;
+        }
+        if (entry.hasExpiry()) {
+            byExpiry.remove(entry);
+        }
+        if (entry.getUuid() != null) {
+            byUuid.remove(entry.getUuid(), entry);
+        }
+    }
+
+    public Collection<WhitelistEntry> entries() {
+        return entries.values();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,213 @@
+package org.renwixx.yawl.util;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Recurring weekly access windows, e.g. "fri 18:00-sun 23:00" or "mon-fri 18:00-22:00". The windows are
+// merged into sorted, non-overlapping minute-of-week intervals once; the current open/closed state is
+// cached together with the time it next changes, so isOpen() is one comparison until that moment.
+public final class AccessSchedule {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+    private static final Pattern SPAN = Pattern.compile("(\\p{Alpha}+)\\s+(\\d{1,2}:\\d{2})\\s*-\\s*(\\p{Alpha}+)\\s+(\\d{1,2}:\\d{2})");
+    private static final Pattern DAILY = Pattern.compile("([\\p{Alpha},\\-*]+)\\s+(\\d{1,2}:\\d{2})\\s*-\\s*(\\d{1,2}:\\d{2})");
+
+    private record State(boolean open, long untilMillis) {}
+
+    private final String name;
+    private final ZoneId zone;
+    private final int[] starts;
+    private final int[] ends;
+    private volatile State state = new State(false, Long.MIN_VALUE);
+
+    private AccessSchedule(String name, ZoneId zone, int[] starts, int[] ends) {
+        this.name = name;
+        this.zone = zone;
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static AccessSchedule parse(String name, Collection<String> windows, ZoneId zone) {
+        List<int[]> intervals = new ArrayList<>();
+        for (String window : windows) {
+            addWindow(intervals, window.trim().toLowerCase(Locale.ROOT));
+        }
+        return of(name, zone, intervals);
+    }
+
+    // Never open; stands in for a schedule that entries still name but the config no longer defines.
+    public static AccessSchedule never(String name, ZoneId zone) {
+        return new AccessSchedule(name, zone, new int[0], new int[0]);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public boolean isEmpty() {
+        return starts.length == 0;
+    }
+
+    public boolean isOpen(long nowMillis) {
+        State current = state;
+        if (nowMillis < current.untilMillis()) {
+            return current.open();
+        }
+        return refresh(nowMillis).open();
+    }
+
+    // When isOpen() changes next, or Long.MAX_VALUE for a schedule without windows.
+    public long nextTransition(long nowMillis) {
+        State current = state;
+        return nowMillis < current.untilMillis() ? current.untilMillis() : refresh(nowMillis).untilMillis();
+    }
+
+    private State refresh(long nowMillis) {
+        State computed = compute(nowMillis);
+        state = computed;
+        return computed;
+    }
+
+    private State compute(long nowMillis) {
+        if (starts.length == 0) {
+            return new State(false, Long.MAX_VALUE);
+        }
+        ZonedDateTime now = Instant.ofEpochMilli(nowMillis).atZone(zone);
+        LocalDateTime weekStart = now.toLocalDate().minusDays(now.getDayOfWeek().getValue() - 1L).atStartOfDay();
+        int minute = (int) ChronoUnit.MINUTES.between(weekStart, now.toLocalDateTime());
+        // Last interval starting at or before this minute.
+        int i = Arrays.binarySearch(starts, minute);
+        if (i < 0) i = -i - 2;
+        boolean open = i >= 0 && minute < ends[i];
+        int next;
+        if (open) {
+            next = ends[i];
+        } else if (i + 1 < starts.length) {
+            next = starts[i + 1];
+        } else {
+            next = starts[0] + MINUTES_PER_WEEK;
+        }
+        long until = weekStart.plusMinutes(next).atZone(zone).toInstant().toEpochMilli();
+        // A DST gap can map the boundary onto or before now; check again a minute later instead.
+        return new State(open, until > nowMillis ? until : nowMillis + 60_000L);
+    }
+
+    private static AccessSchedule of(String name, ZoneId zone, List<int[]> intervals) {
+        intervals.sort((a, b) -> Integer.compare(a[0], b[0]));
+        List<int[]> merged = new ArrayList<>();
+        for (int[] interval : intervals) {
+            int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && interval[0] <= last[1]) {
+                last[1] = Math.max(last[1], interval[1]);
+            } else {
+                merged.add(new int[]{interval[0], interval[1]});
+            }
+        }
+        int[] starts = new int[merged.size()];
+        int[] ends = new int[merged.size()];
+        for (int i = 0; i < merged.size(); i++) {
+            starts[i] = merged.get(i)[0];
+            ends[i] = merged.get(i)[1];
+        }
+        return new AccessSchedule(name, zone, starts, ends);
+    }
+
+    private static void addWindow(List<int[]> intervals, String window) {
+        Matcher span = SPAN.matcher(window);
+        if (span.matches()) {
+            int start = dayStart(day(span.group(1))) + minuteOfDay(span.group(2));
+            int end = dayStart(day(span.group(3))) + minuteOfDay(span.group(4));
+            addWrapped(intervals, start, end);
+            return;
+        }
+        Matcher daily = DAILY.matcher(window);
+        if (daily.matches()) {
+            int from = minuteOfDay(daily.group(2));
+            int to = minuteOfDay(daily.group(3));
+            for (DayOfWeek day : days(daily.group(1))) {
+                int start = dayStart(day) + from;
+                addWrapped(intervals, start, start + (to > from ? to - from : to - from + MINUTES_PER_DAY));
+            }
+            return;
+        }
+        throw new IllegalArgumentException("Invalid access window '" + window
+                + "', expected e.g. 'fri 18:00-sun 23:00' or 'mon-fri 18:00-22:00'.");
+    }
+
+    // Windows that run past Sunday midnight are split at the end of the week.
+    private static void addWrapped(List<int[]> intervals, int start, int end) {
+        if (end <= start) {
+            end += MINUTES_PER_WEEK;
+        }
+        if (end > MINUTES_PER_WEEK) {
+            intervals.add(new int[]{start, MINUTES_PER_WEEK});
+            intervals.add(new int[]{0, Math.min(end - MINUTES_PER_WEEK, start)});
+        } else {
+            intervals.add(new int[]{start, end});
+        }
+    }
+
+    private static Set<DayOfWeek> days(String spec) {
+        if (spec.equals("daily") || spec.equals("*")) {
+            return EnumSet.allOf(DayOfWeek.class);
+        }
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String part : spec.split(",")) {
+            int dash = part.indexOf('-');
+            if (dash < 0) {
+                days.add(day(part));
+                continue;
+            }
+            DayOfWeek day = day(part.substring(0, dash));
+            DayOfWeek last = day(part.substring(dash + 1));
+            days.add(day);
+            while (day != last) {
+                day = day.plus(1);
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    private static DayOfWeek day(String text) {
+        String prefix = text.trim();
+        if (prefix.length() >= 3) {
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (day.name().toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                    return day;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown day '" + text + "', expected mon, tue, wed, thu, fri, sat or sun.");
+    }
+
+    private static int dayStart(DayOfWeek day) {
+        return (day.getValue() - 1) * MINUTES_PER_DAY;
+    }
+
+    private static int minuteOfDay(String time) {
+        if (time.equals("24:00")) {
+            return MINUTES_PER_DAY;
+        }
+        int colon = time.indexOf(':');
+        int hour = Integer.parseInt(time.substring(0, colon));
+        int minute = Integer.parseInt(time.substring(colon + 1));
+        if (hour > 23 || minute > 59) {
+            throw new IllegalArgumentException("Invalid time '" + time + "', expected 00:00-23:59 or 24:00.");
+        }
+        return hour * 60 + minute;
+    }
+}
@@ -0,0 +1,216 @@
+package org.renwixx.yawl.util;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Optional;
+
+// Compressed binary radix (Patricia) tree over 128-bit keys. IPv4 ranges are stored as IPv4-mapped
+// IPv6 (::ffff:a.b.c.d), so both families share one tree and a lookup visits at most 128 levels
+// however many ranges are loaded. Trees are built once and never mutated, so reads need no locking.
+public final class AddressRangeTree {
+    private static final long IPV4_MAPPED = 0x0000_ffff_0000_0000L;
+
+    private final Node root;
+    private final int size;
+
+    private AddressRangeTree(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static AddressRangeTree of(Collection<Range> ranges) {
+        Builder builder = new Builder();
+        ranges.forEach(builder::insert);
+        return new AddressRangeTree(builder.root, ranges.size());
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(InetAddress address) {
+        if (address instanceof Inet4Address) {
+            // Inet4Address.hashCode() is the address itself; getAddress() would allocate a copy.
+            return containsIpv4(address.hashCode());
+        }
+        byte[] bytes = address.getAddress();
+        return contains(readLong(bytes, 0), readLong(bytes, 8));
+    }
+
+    public boolean containsIpv4(int address) {
+        return contains(0L, IPV4_MAPPED | (address & 0xffff_ffffL));
+    }
+
+    public boolean contains(long hi, long lo) {
+        Node node = root;
+        while (node != null) {
+            if (!matches(node, hi, lo)) return false;
+            if (node.terminal) return true;
+            if (node.length == 128) return false;
+            node = bit(hi, lo, node.length) == 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    private static boolean matches(Node node, long hi, long lo) {
+        return ((hi ^ node.hi) & maskHi(node.length)) == 0 && ((lo ^ node.lo) & maskLo(node.length)) == 0;
+    }
+
+    private static long maskHi(int length) {
+        if (length >= 64) return -1L;
+        return length == 0 ? 0L : -1L << (64 - length);
+    }
+
+    private static long maskLo(int length) {
+        if (length <= 64) return 0L;
+        return length == 128 ? -1L : -1L << (128 - length);
+    }
+
+    private static int bit(long hi, long lo, int index) {
+        return index < 64 ? (int) ((hi >>> (63 - index)) & 1L) : (int) ((lo >>> (127 - index)) & 1L);
+    }
+
+    private static int firstDifference(long hiA, long loA, long hiB, long loB) {
+        long diff = hiA ^ hiB;
+        if (diff != 0) return Long.numberOfLeadingZeros(diff);
+        diff = loA ^ loB;
+        return diff != 0 ? 64 + Long.numberOfLeadingZeros(diff) : 128;
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xffL);
+        }
+        return value;
+    }
+
+    private static final class Node {
+        final long hi;
+        final long lo;
+        final int length;
+        boolean terminal;
+        Node left;
+        Node right;
+
+        Node(long hi, long lo, int length, boolean terminal) {
+            this.hi = hi & maskHi(length);
+            this.lo = lo & maskLo(length);
+            this.length = length;
+            this.terminal = terminal;
+        }
+
+        void attach(Node child) {
+            if (bit(child.hi, child.lo, length) == 0) left = child; else right = child;
+        }
+    }
+
+    private static final class Builder {
+        Node root;
+
+        void insert(Range range) {
+            Node leaf = new Node(range.hi, range.lo, range.length, true);
+            if (root == null) {
+                root = leaf;
+                return;
+            }
+            Node parent = null;
+            Node node = root;
+            while (true) {
+                int common = Math.min(Math.min(node.length, leaf.length),
+                        firstDifference(node.hi, node.lo, leaf.hi, leaf.lo));
+                if (common < node.length) {
+                    Node split = common == leaf.length ? leaf : new Node(leaf.hi, leaf.lo, common, false);
+                    split.attach(node);
+                    if (split != leaf) split.attach(leaf);
+                    replace(parent, node, split);
+                    return;
+                }
+                if (leaf.length == node.length) {
+                    node.terminal = true;
+                    return;
+                }
+                Node child = bit(leaf.hi, leaf.lo, node.length) == 0 ? node.left : node.right;
+                if (child == null) {
+                    node.attach(leaf);
+                    return;
+                }
+                parent = node;
+                node = child;
+            }
+        }
+
+        private void replace(Node parent, Node old, Node replacement) {
+            if (parent == null) {
+                root = replacement;
+            } else if (parent.left == old) {
+                parent.left = replacement;
+            } else {
+                parent.right = replacement;
+            }
+        }
+    }
+
+    public record Range(long hi, long lo, int length, String text) {
+
+        // Accepts 'address/prefix' or a bare address. Only IP literals are accepted, never host names.
+        public static Optional<Range> parse(String input) {
+            String value = input.trim().toLowerCase(Locale.ROOT);
+            int slash = value.indexOf('/');
+            String addressPart = slash < 0 ? value : value.substring(0, slash);
+            boolean literal = addressPart.indexOf(':') >= 0
+                    ? addressPart.chars().allMatch(c -> Character.digit(c, 16) >= 0 || c == '.' || c == ':')
+                    : addressPart.chars().allMatch(c -> (c >= '0' && c <= '9') || c == '.');
+            if (addressPart.isEmpty() || !literal) {
+                return Optional.empty();
+            }
+            InetAddress address;
+            try {
+                address = InetAddress.getByName(addressPart);
+            } catch (UnknownHostException e) {
+                return Optional.empty();
+            }
+            boolean ipv4 = address instanceof Inet4Address;
+            int maxLength = ipv4 ? 32 : 128;
+            int prefix = maxLength;
+            if (slash >= 0) {
+                try {
+                    prefix = Integer.parseInt(value.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    return Optional.empty();
+                }
+                if (prefix < 0 || prefix > maxLength) return Optional.empty();
+            }
+            byte[] bytes = address.getAddress();
+            for (int i = 0; i < bytes.length; i++) {
+                int keep = Math.max(0, Math.min(8, prefix - i * 8));
+                bytes[i] &= (byte) (0xff << (8 - keep));
+            }
+            try {
+                address = InetAddress.getByAddress(bytes);
+            } catch (UnknownHostException e) {
+                return Optional.empty();
+            }
+            if (ipv4) {
+                long lo = IPV4_MAPPED | (readLong(new byte[]{0, 0, 0, 0, bytes[0], bytes[1], bytes[2], bytes[3]}, 0) & 0xffff_ffffL);
+                return Optional.of(new Range(0L, lo, 96 + prefix, format(address, prefix, maxLength)));
+            }
+            if (address instanceof Inet6Address) {
+                return Optional.of(new Range(readLong(bytes, 0), readLong(bytes, 8), prefix, format(address, prefix, maxLength)));
+            }
+            return Optional.empty();
+        }
+
+        private static String format(InetAddress address, int prefix, int maxLength) {
+            return prefix == maxLength ? address.getHostAddress() : address.getHostAddress() + "/" + prefix;
+        }
+    }
+}
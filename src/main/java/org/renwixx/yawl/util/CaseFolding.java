@@ -0,0 +1,26 @@
+package org.renwixx.yawl.util;
+
+// The one case fold for player names. Canonical keys, the name index and the pattern matcher all use it,
+// so a name that is equal to one of them is equal to all of them.
+public final class CaseFolding {
+    private CaseFolding() { }
+
+    public static char fold(char c) {
+        if (c < 128) return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        return Character.toLowerCase(c);
+    }
+
+    public static String fold(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (fold(c) != c) {
+                char[] chars = name.toCharArray();
+                for (int j = i; j < chars.length; j++) {
+                    chars[j] = fold(chars[j]);
+                }
+                return new String(chars);
+            }
+        }
+        return name;
+    }
+}
@@ -0,0 +1,257 @@
+package org.renwixx.yawl.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+// Bounded read-through cache in front of storage that is too slow to ask on every lookup. Eviction follows
+// W-TinyLFU: new keys enter a small LRU window, and a key leaving the window only replaces the main region's
+// victim if a frequency sketch has seen it more often, so a burst of one-off keys cannot push out the ones
+// that are used repeatedly. Keys the storage does not have are remembered separately for a short TTL, and
+// concurrent loads of the same key share one fetch.
+public final class LookupCache<K, V> {
+    public record Stats(long hits, long negativeHits, long misses, long evictions, int size, int negativeSize) {
+        public double hitRatio() {
+            long requests = hits + negativeHits + misses;
+            return requests == 0 ? 0.0 : (double) (hits + negativeHits) / requests;
+        }
+    }
+
+    private final int windowCapacity;
+    private final int probationCapacity;
+    private final int protectedCapacity;
+    private final long negativeTtlNanos;
+    private final Function<K, Optional<V>> loader;
+    private final FrequencySketch sketch;
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedRegion = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Long> negative = new LinkedHashMap<>();
+    private final Map<K, CompletableFuture<Optional<V>>> loading = new ConcurrentHashMap<>();
+    // Bumped by every invalidation, so a load that started before it does not store a stale answer.
+    private long generation;
+    private long hits;
+    private long negativeHits;
+    private long misses;
+    private long evictions;
+
+    // A maximumSize of 0 disables caching; loads are still coalesced.
+    public LookupCache(int maximumSize, Duration negativeTtl, Function<K, Optional<V>> loader) {
+        int size = Math.max(0, maximumSize);
+        this.windowCapacity = size == 0 ? 0 : Math.max(1, size / 100);
+        int main = size - windowCapacity;
+        this.protectedCapacity = main * 4 / 5;
+        this.probationCapacity = main - protectedCapacity;
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.loader = loader;
+        this.sketch = new FrequencySketch(Math.max(16, size));
+    }
+
+    public Optional<V> get(K key) {
+        long started;
+        synchronized (this) {
+            sketch.increment(key);
+            V value = window.get(key);
+            if (value == null) {
+                value = probation.remove(key);
+                if (value != null) {
+                    promote(key, value);
+                } else {
+                    value = protectedRegion.get(key);
+                }
+            }
+            if (value != null) {
+                hits++;
+                return Optional.of(value);
+            }
+            Long absentUntil = negative.get(key);
+            if (absentUntil != null) {
+                if (System.nanoTime() - absentUntil < 0) {
+                    negativeHits++;
+                    return Optional.empty();
+                }
+                negative.remove(key);
+            }
+            misses++;
+            started = generation;
+        }
+        return load(key, started);
+    }
+
+    private Optional<V> load(K key, long started) {
+        CompletableFuture<Optional<V>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<V>> existing = loading.putIfAbsent(key, mine);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                // Waiters see the loader's own exception, just like the thread that ran it.
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        try {
+            Optional<V> loaded = loader.apply(key);
+            synchronized (this) {
+                if (generation == started) {
+                    store(key, loaded);
+                }
+            }
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        window.remove(key);
+        probation.remove(key);
+        protectedRegion.remove(key);
+        negative.remove(key);
+    }
+
+    // Returns how many entries, present or absent, were forgotten.
+    public synchronized int invalidateAll() {
+        generation++;
+        int size = window.size() + probation.size() + protectedRegion.size() + negative.size();
+        window.clear();
+        probation.clear();
+        protectedRegion.clear();
+        negative.clear();
+        return size;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, negativeHits, misses, evictions,
+                window.size() + probation.size() + protectedRegion.size(), negative.size());
+    }
+
+    private void store(K key, Optional<V> loaded) {
+        if (windowCapacity == 0) {
+            return;
+        }
+        if (loaded.isEmpty()) {
+            negative.put(key, System.nanoTime() + negativeTtlNanos);
+            if (negative.size() > windowCapacity + probationCapacity + protectedCapacity) {
+                Iterator<K> oldest = negative.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+            }
+            return;
+        }
+        negative.remove(key);
+        window.put(key, loaded.get());
+        if (window.size() > windowCapacity) {
+            Map.Entry<K, V> candidate = removeEldest(window);
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    // A key leaving the window competes with the probation victim; the less frequently seen one is dropped.
+    private void admit(K key, V value) {
+        if (probationCapacity + protectedCapacity == 0) {
+            evictions++;
+            return;
+        }
+        if (probation.size() + protectedRegion.size() < probationCapacity + protectedCapacity) {
+            probation.put(key, value);
+            return;
+        }
+        LinkedHashMap<K, V> victims = probation.isEmpty() ? protectedRegion : probation;
+        K victim = victims.keySet().iterator().next();
+        evictions++;
+        if (sketch.frequency(key) > sketch.frequency(victim)) {
+            victims.remove(victim);
+            probation.put(key, value);
+        }
+    }
+
+    // A second hit moves a key from probation to the protected region, whose least recent key drops back.
+    private void promote(K key, V value) {
+        protectedRegion.put(key, value);
+        if (protectedRegion.size() > protectedCapacity) {
+            Map.Entry<K, V> demoted = removeEldest(protectedRegion);
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    private static <K, V> Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> map) {
+        Iterator<Map.Entry<K, V>> entries = map.entrySet().iterator();
+        Map.Entry<K, V> eldest = entries.next();
+        Map.Entry<K, V> copy = Map.entry(eldest.getKey(), eldest.getValue());
+        entries.remove();
+        return copy;
+    }
+
+    // Count-Min sketch with 4-bit counters in four rows. All counters are halved after 10 * capacity
+    // increments, so the popularity of keys that are no longer asked for fades.
+    private static final class FrequencySketch {
+        private static final int ROWS = 4;
+        private final byte[][] counters;
+        private final int mask;
+        private final int seed = ThreadLocalRandom.current().nextInt() | 1;
+        private final int resetAfter;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int width = Integer.highestOneBit(capacity - 1) << 1;
+            this.counters = new byte[ROWS][width];
+            this.mask = width - 1;
+            this.resetAfter = 10 * capacity;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int row = 0; row < ROWS; row++) {
+                int index = index(hash, row);
+                if (counters[row][index] < 15) {
+                    counters[row][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= resetAfter) {
+                for (byte[] row : counters) {
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] >>= 1;
+                    }
+                }
+                additions /= 2;
+            }
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int min = 15;
+            for (int row = 0; row < ROWS; row++) {
+                min = Math.min(min, counters[row][index(hash, row)]);
+            }
+            return min;
+        }
+
+        private int index(int hash, int row) {
+            int h = hash * (seed + 2 * row * 0x9E3779B9);
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private static int spread(int h) {
+            h ^= h >>> 16;
+            h *= 0x45d9f3b;
+            return h ^ (h >>> 16);
+        }
+    }
+}
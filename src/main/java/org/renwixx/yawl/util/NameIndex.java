@@ -0,0 +1,222 @@
+package org.renwixx.yawl.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// Open-addressing hash index keyed by player name. Lookups hash and compare the query in place with
+// optional case folding (ASCII fast path), so no lowercase copy is made per call. Writers copy the
+// table and publish it through a volatile field; readers never lock and always see a complete table.
+public final class NameIndex<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private final boolean caseSensitive;
+    private volatile Table table = new Table(MIN_CAPACITY);
+
+    public NameIndex(boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+    }
+
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(CharSequence name) {
+        Table current = table;
+        int slot = current.slotOf(this, name);
+        return slot < 0 ? null : (V) current.values[slot];
+    }
+
+    // Replacing a value or adding one that fits writes a single slot of a plain array copy; only growth rehashes.
+    public synchronized V put(String name, V value) {
+        Table current = table;
+        Table next = capacityFor(current.size + 1) > current.keys.length ? copy(current, current.size + 1) : current.copy();
+        V previous = next.insert(this, name, value);
+        table = next;
+        return previous;
+    }
+
+    public synchronized V putIfAbsent(String name, V value) {
+        V existing = get(name);
+        if (existing != null) return existing;
+        put(name, value);
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized V remove(CharSequence name) {
+        Table current = table;
+        int slot = current.slotOf(this, name);
+        if (slot < 0) return null;
+        V existing = (V) current.values[slot];
+        Table next = current.copy();
+        next.delete(this, slot);
+        table = next;
+        return existing;
+    }
+
+    // Removes every matching value with a single table rebuild; returns what was removed.
+    @SuppressWarnings("unchecked")
+    public synchronized List<V> removeIf(Predicate<? super V> filter) {
+        Table current = table;
+        List<V> removed = new ArrayList<>();
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != null && filter.test((V) current.values[i])) {
+                removed.add((V) current.values[i]);
+            }
+        }
+        if (removed.isEmpty()) return removed;
+        Table next = new Table(capacityFor(current.size - removed.size()));
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != null && !filter.test((V) current.values[i])) {
+                next.insert(this, current.keys[i], current.values[i]);
+            }
+        }
+        table = next;
+        return removed;
+    }
+
+    public synchronized void putAll(Map<String, ? extends V> items) {
+        Table next = copy(table, table.size + items.size());
+        items.forEach((name, value) -> next.insert(this, name, value));
+        table = next;
+    }
+
+    public synchronized void replaceAll(Map<String, ? extends V> items) {
+        Table next = new Table(capacityFor(items.size()));
+        items.forEach((name, value) -> next.insert(this, name, value));
+        table = next;
+    }
+
+    public synchronized void clear() {
+        table = new Table(MIN_CAPACITY);
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Collection<V> values() {
+        Table current = table;
+        List<V> result = new ArrayList<>(current.size);
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != null) result.add((V) current.values[i]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private int hash(CharSequence name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + fold(name.charAt(i));
+        }
+        // Spread the bits so that similar names do not cluster in neighbouring slots.
+        return h ^ (h >>> 16);
+    }
+
+    private boolean keyEquals(String key, CharSequence name) {
+        int length = key.length();
+        if (length != name.length()) return false;
+        for (int i = 0; i < length; i++) {
+            char a = key.charAt(i);
+            char b = name.charAt(i);
+            if (a != b && fold(a) != fold(b)) return false;
+        }
+        return true;
+    }
+
+    private char fold(char c) {
+        return caseSensitive ? c : CaseFolding.fold(c);
+    }
+
+    private Table copy(Table source, int expectedSize) {
+        int capacity = Math.max(source.keys.length, capacityFor(expectedSize));
+        Table next = new Table(capacity);
+        for (int i = 0; i < source.keys.length; i++) {
+            if (source.keys[i] != null) next.insert(this, source.keys[i], source.values[i]);
+        }
+        return next;
+    }
+
+    // Keeps the load factor at or below one half so probe chains stay short.
+    private static int capacityFor(int size) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < size * 2) capacity <<= 1;
+        return capacity;
+    }
+
+    private static final class Table {
+        final String[] keys;
+        final Object[] values;
+        int size;
+
+        Table(int capacity) {
+            this(new String[capacity], new Object[capacity], 0);
+        }
+
+        private Table(String[] keys, Object[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+        }
+
+        Table copy() {
+            return new Table(keys.clone(), values.clone(), size);
+        }
+
+        int slotOf(NameIndex<?> index, CharSequence name) {
+            int mask = keys.length - 1;
+            int slot = index.hash(name) & mask;
+            while (true) {
+                String key = keys[slot];
+                if (key == null) return -1;
+                if (index.keyEquals(key, name)) return slot;
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        // Backward-shift deletion: later entries of the probe chain move into the hole, so no tombstones remain.
+        void delete(NameIndex<?> index, int slot) {
+            int mask = keys.length - 1;
+            int hole = slot;
+            int i = slot;
+            while (true) {
+                i = (i + 1) & mask;
+                if (keys[i] == null) break;
+                int home = index.hash(keys[i]) & mask;
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    keys[hole] = keys[i];
+                    values[hole] = values[i];
+                    hole = i;
+                }
+            }
+            keys[hole] = null;
+            values[hole] = null;
+            size--;
+        }
+
+        @SuppressWarnings("unchecked")
+        <V> V insert(NameIndex<?> index, String name, Object value) {
+            int mask = keys.length - 1;
+            int slot = index.hash(name) & mask;
+            while (keys[slot] != null) {
+                if (index.keyEquals(keys[slot], name)) {
+                    V previous = (V) values[slot];
+                    keys[slot] = name;
+                    values[slot] = value;
+                    return previous;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = name;
+            values[slot] = value;
+            size++;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package org.renwixx.yawl.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Matches names against many glob patterns ('*' = any run of characters, '?' = exactly one) at once.
+// All patterns share one trie that acts as an NFA; its reachable state sets are turned into DFA states
+// lazily, so a warmed-up match costs one table step per character regardless of the pattern count.
+// The trie is persistent: add/remove copy only the touched path and start a fresh DFA cache.
+public final class PatternMatcher {
+    private static final String[] NO_MATCH = new String[0];
+    private static final int MAX_DFA_STATES = 4096;
+    private static final AtomicInteger NODE_IDS = new AtomicInteger();
+
+    private final boolean caseSensitive;
+    private final Set<String> patterns = new HashSet<>();
+    private volatile Automaton automaton;
+
+    public PatternMatcher(boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+        this.automaton = new Automaton(Node.EMPTY);
+    }
+
+    public static boolean isPattern(String name) {
+        return name.indexOf('*') >= 0 || name.indexOf('?') >= 0;
+    }
+
+    public synchronized void add(String pattern) {
+        String key = fold(pattern);
+        if (patterns.add(key)) {
+            automaton = new Automaton(automaton.root.insert(key, 0));
+        }
+    }
+
+    public synchronized void remove(String pattern) {
+        String key = fold(pattern);
+        if (patterns.remove(key)) {
+            Node root = automaton.root.delete(key, 0);
+            automaton = new Automaton(root == null ? Node.EMPTY : root);
+        }
+    }
+
+    public synchronized void clear() {
+        patterns.clear();
+        automaton = new Automaton(Node.EMPTY);
+    }
+
+    public boolean isEmpty() {
+        return automaton.root == Node.EMPTY;
+    }
+
+    // Returns the folded patterns that accept the name; the array is shared and must not be modified.
+    public String[] match(CharSequence name) {
+        Automaton current = automaton;
+        if (current.root == Node.EMPTY) return NO_MATCH;
+        State state = current.start;
+        for (int i = 0; i < name.length() && !state.dead; i++) {
+            state = current.step(state, foldChar(name.charAt(i)));
+        }
+        return state.accepting;
+    }
+
+    private String fold(String pattern) {
+        return caseSensitive ? pattern : CaseFolding.fold(pattern);
+    }
+
+    private char foldChar(char c) {
+        return caseSensitive ? c : CaseFolding.fold(c);
+    }
+
+    private static final class Node {
+        static final Node EMPTY = new Node(Map.of(), null, null, null, false);
+
+        final int id = NODE_IDS.incrementAndGet();
+        final Map<Character, Node> literals;
+        final Node any;
+        final Node star;
+        final String accepts;
+        // Set on nodes reached through '*': they keep consuming characters.
+        final boolean loops;
+
+        Node(Map<Character, Node> literals, Node any, Node star, String accepts, boolean loops) {
+            this.literals = literals;
+            this.any = any;
+            this.star = star;
+            this.accepts = accepts;
+            this.loops = loops;
+        }
+
+        Node with(Map<Character, Node> literals, Node any, Node star, String accepts) {
+            return new Node(literals, any, star, accepts, loops);
+        }
+
+        boolean isLeaf() {
+            return literals.isEmpty() && any == null && star == null && accepts == null;
+        }
+
+        Node insert(String pattern, int index) {
+            if (index == pattern.length()) {
+                return with(literals, any, star, pattern);
+            }
+            char c = pattern.charAt(index);
+            if (c == '*') {
+                // Consecutive stars are equivalent to one.
+                int next = index;
+                while (next < pattern.length() && pattern.charAt(next) == '*') next++;
+                Node target = star == null ? new Node(Map.of(), null, null, null, true) : star;
+                return with(literals, any, target.insert(pattern, next), accepts);
+            }
+            if (c == '?') {
+                return with(literals, orEmpty(any).insert(pattern, index + 1), star, accepts);
+            }
+            Map<Character, Node> copy = new HashMap<>(literals);
+            copy.put(c, orEmpty(literals.get(c)).insert(pattern, index + 1));
+            return with(Map.copyOf(copy), any, star, accepts);
+        }
+
+        Node delete(String pattern, int index) {
+            Node updated;
+            if (index == pattern.length()) {
+                updated = with(literals, any, star, null);
+            } else {
+                char c = pattern.charAt(index);
+                if (c == '*') {
+                    int next = index;
+                    while (next < pattern.length() && pattern.charAt(next) == '*') next++;
+                    updated = star == null ? this : with(literals, any, star.delete(pattern, next), accepts);
+                } else if (c == '?') {
+                    updated = any == null ? this : with(literals, any.delete(pattern, index + 1), star, accepts);
+                } else {
+                    Node child = literals.get(c);
+                    if (child == null) return this;
+                    Map<Character, Node> copy = new HashMap<>(literals);
+                    Node replaced = child.delete(pattern, index + 1);
+                    if (replaced == null) copy.remove(c); else copy.put(c, replaced);
+                    updated = with(Map.copyOf(copy), any, star, accepts);
+                }
+            }
+            return updated.isLeaf() ? null : updated;
+        }
+
+        private static Node orEmpty(Node node) {
+            return node == null ? EMPTY : node;
+        }
+    }
+
+    private static final class State {
+        final Node[] nodes;
+        final String[] accepting;
+        final boolean dead;
+        final State[] ascii = new State[128];
+
+        State(Node[] nodes) {
+            this.nodes = nodes;
+            this.dead = nodes.length == 0;
+            List<String> accepts = new ArrayList<>();
+            for (Node node : nodes) {
+                if (node.accepts != null) accepts.add(node.accepts);
+            }
+            this.accepting = accepts.isEmpty() ? NO_MATCH : accepts.toArray(String[]::new);
+        }
+    }
+
+    private record StateKey(Node[] nodes) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StateKey other && Arrays.equals(nodes, other.nodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(nodes);
+        }
+    }
+
+    private static final class Automaton {
+        final Node root;
+        final State start;
+        final Map<StateKey, State> states = new ConcurrentHashMap<>();
+
+        Automaton(Node root) {
+            this.root = root;
+            this.start = intern(closure(List.of(root)));
+        }
+
+        State step(State from, char c) {
+            State cached = c < 128 ? from.ascii[c] : null;
+            if (cached != null) return cached;
+            if (states.size() >= MAX_DFA_STATES) {
+                // Pathological pattern sets fall back to plain NFA simulation instead of growing the cache.
+                return new State(move(from, c));
+            }
+            State next = intern(move(from, c));
+            if (c < 128) {
+                from.ascii[c] = next;
+            }
+            return next;
+        }
+
+        private Node[] move(State from, char c) {
+            List<Node> targets = new ArrayList<>();
+            for (Node node : from.nodes) {
+                Node literal = node.literals.get(c);
+                if (literal != null) targets.add(literal);
+                if (node.any != null) targets.add(node.any);
+                if (node.loops) targets.add(node);
+            }
+            return closure(targets);
+        }
+
+        private Node[] closure(Collection<Node> seeds) {
+            Map<Integer, Node> result = new TreeMap<>();
+            Deque<Node> pending = new ArrayDeque<>(seeds);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                if (result.putIfAbsent(node.id, node) == null && node.star != null) {
+                    pending.push(node.star);
+                }
+            }
+            return result.values().toArray(Node[]::new);
+        }
+
+        private State intern(Node[] nodes) {
+            return states.computeIfAbsent(new StateKey(nodes), key -> new State(key.nodes()));
+        }
+    }
+}
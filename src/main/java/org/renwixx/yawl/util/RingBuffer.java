@@ -0,0 +1,74 @@
+package org.renwixx.yawl.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+// Bounded multi-producer, single-consumer queue. Every slot carries a sequence number that tells
+// producers whether it is free and the consumer whether it is filled, so neither side takes a lock.
+// offer() never blocks: when the buffer is full the item is refused and the caller decides what to do.
+public final class RingBuffer<T> {
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private long tail;
+
+    public RingBuffer(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, minCapacity - 1)) << 1;
+        this.items = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    public boolean offer(T item) {
+        long position = head.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long diff = sequences.get(slot) - position;
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    items[slot] = item;
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = head.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    // Consumer side; must only be called from one thread at a time.
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        int slot = (int) tail & mask;
+        if (sequences.get(slot) != tail + 1) {
+            return null;
+        }
+        T item = (T) items[slot];
+        items[slot] = null;
+        sequences.set(slot, tail + items.length);
+        tail++;
+        return item;
+    }
+
+    public int drain(Consumer<? super T> consumer) {
+        int count = 0;
+        T item;
+        while ((item = poll()) != null) {
+            consumer.accept(item);
+            count++;
+        }
+        return count;
+    }
+}